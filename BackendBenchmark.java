@@ -0,0 +1,140 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.nio.FloatBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs ONNX Runtime and OpenCV DNN on identical inputs and compares them.
+ *
+ * Both backends get the same preprocessed tensors, built once up front, either from
+ * seeded random frames or from the images of a split file. For each backend it reports
+ * latency, the resident memory added by loading and warming it up, and the native bytes
+ * the backend itself reports; it then reports how often the two agree on the top-1
+ * class and the largest probability difference.
+ *
+ * Usage: java BackendBenchmark [model.onnx] [iterations] [batch] [split.txt dataDir]
+ */
+public class BackendBenchmark {
+
+    private static final int INPUTS = 16;
+    private static final int WARMUP = 10;
+
+    public static void main(String[] args) throws Exception {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        String modelPath = args.length > 0 ? args[0] : "model.onnx";
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int batch = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        List<float[]> inputs = args.length > 4 ? datasetInputs(args[3], args[4], batch) : randomInputs(batch);
+        long[] shape = {batch, 3, GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE};
+        System.out.printf("%s, batch %d, %d distinct inputs, %d timed runs%n", modelPath, batch, inputs.size(), iterations);
+
+        // ORT first, then OpenCV DNN, each measured in isolation
+        float[][][] ortOutputs;
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment()) {
+            long rssBefore = InferenceSession.residentBytes();
+            try (OrtSession session = SessionTuner.createSession(env, modelPath, shape);
+                 InferenceSession ort = new InferenceSession(env, session)) {
+                ortOutputs = measure(ort, inputs, shape, iterations, rssBefore);
+            }
+        }
+        float[][][] dnnOutputs;
+        long rssBefore = InferenceSession.residentBytes();
+        try (OpenCvDnnBackend dnn = new OpenCvDnnBackend(modelPath)) {
+            dnnOutputs = measure(dnn, inputs, shape, iterations, rssBefore);
+        }
+
+        int agree = 0, rows = 0;
+        double maxProbDiff = 0;
+        for (int i = 0; i < ortOutputs.length; i++) {
+            for (int r = 0; r < batch; r++) {
+                float[] a = GarbageClassifier.softmax(ortOutputs[i][r]);
+                float[] b = GarbageClassifier.softmax(dnnOutputs[i][r]);
+                if (GarbageClassifier.argMax(a) == GarbageClassifier.argMax(b)) agree++;
+                for (int c = 0; c < a.length; c++) maxProbDiff = Math.max(maxProbDiff, Math.abs(a[c] - b[c]));
+                rows++;
+            }
+        }
+        System.out.printf("%nAgreement: top-1 %d/%d (%.2f%%), max probability difference %.6f%n",
+                agree, rows, 100.0 * agree / rows, maxProbDiff);
+    }
+
+    // Outputs for each input, then timed runs cycling through the inputs
+    private static float[][][] measure(InferenceBackend backend, List<float[]> inputs, long[] shape,
+                                       int iterations, long rssBefore) throws Exception {
+        float[][][] outputs = new float[inputs.size()][][];
+        for (int i = 0; i < inputs.size(); i++) {
+            backend.input(shape).put(inputs.get(i));
+            outputs[i] = backend.run(shape);
+        }
+        for (int i = 0; i < WARMUP; i++) {
+            backend.input(shape).put(inputs.get(i % inputs.size()));
+            backend.run(shape);
+        }
+        long rssAfter = InferenceSession.residentBytes();
+
+        LatencyStats latency = new LatencyStats(iterations);
+        for (int i = 0; i < iterations; i++) {
+            backend.input(shape).put(inputs.get(i % inputs.size()));
+            long start = System.nanoTime();
+            backend.run(shape);
+            latency.record(System.nanoTime() - start);
+        }
+        System.out.printf("%n%-12s %s%n", backend.name(), latency);
+        System.out.printf("%-12s rss +%d KB after load+warm-up, backend reports %d KB native%n",
+                "", (rssAfter - rssBefore) / 1024, backend.nativeBytesInUse() / 1024);
+        return outputs;
+    }
+
+    private static List<float[]> randomInputs(int batch) {
+        Core.setRNGSeed(42);
+        int size = GarbageClassifier.IMG_SIZE;
+        Mat frame = new Mat(size, size, CvType.CV_8UC3);
+        List<float[]> inputs = new ArrayList<>();
+        TensorPreprocessor preprocessor = new TensorPreprocessor(size);
+        for (int i = 0; i < INPUTS; i++) {
+            float[] input = new float[batch * 3 * size * size];
+            FloatBuffer view = FloatBuffer.wrap(input);
+            for (int b = 0; b < batch; b++) {
+                Core.randu(frame, 0, 256);
+                preprocessor.writeTensor(frame, view, b * 3 * size * size);
+            }
+            inputs.add(input);
+        }
+        frame.release();
+        return inputs;
+    }
+
+    private static List<float[]> datasetInputs(String split, String dataDir, int batch) throws Exception {
+        int size = GarbageClassifier.IMG_SIZE;
+        TensorPreprocessor preprocessor = new TensorPreprocessor(size);
+        List<float[]> inputs = new ArrayList<>();
+        float[] current = null;
+        int filled = 0;
+        Mat resized = new Mat();
+        for (DatasetSplit.Sample sample : DatasetSplit.read(Paths.get(split), Paths.get(dataDir))) {
+            Mat image = Imgcodecs.imread(sample.path.toString(), Imgcodecs.IMREAD_COLOR);
+            if (image.empty()) continue;
+            Imgproc.resize(image, resized, new Size(size, size));
+            image.release();
+            if (current == null) current = new float[batch * 3 * size * size];
+            preprocessor.writeTensor(resized, FloatBuffer.wrap(current), filled * 3 * size * size);
+            if (++filled == batch) {
+                inputs.add(current);
+                current = null;
+                filled = 0;
+            }
+        }
+        resized.release();
+        if (inputs.isEmpty()) throw new IllegalArgumentException("No readable images in " + split);
+        return inputs;
+    }
+}
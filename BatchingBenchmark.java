@@ -0,0 +1,83 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Drives MicroBatcher with concurrent synthetic clients for a grid of batch sizes and
+ * wait times, printing throughput and latency for each setting. Runs in-process, so
+ * the numbers exclude HTTP and image decoding.
+ *
+ * Usage: java BatchingBenchmark [model.onnx] [clients] [requestsPerClient]
+ */
+public class BatchingBenchmark {
+
+    private static final int[] BATCH_SIZES = {1, 2, 4, 8, 16};
+    private static final int[] WAIT_MS = {0, 2, 5, 10};
+
+    public static void main(String[] args) throws Exception {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        String modelPath = args.length > 0 ? args[0] : "model.onnx";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int perClient = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        Mat image = new Mat(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE, CvType.CV_8UC3);
+        Core.randu(image, 0, 256);
+
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession session = env.createSession(modelPath, new OrtSession.SessionOptions())) {
+
+            System.out.printf("%d clients x %d requests%n", clients, perClient);
+            System.out.printf("%6s %8s %12s %10s %10s %10s %10s%n",
+                    "batch", "wait_ms", "images/s", "avg_batch", "p50_ms", "p95_ms", "p99_ms");
+            for (int maxBatch : BATCH_SIZES) {
+                for (int waitMs : WAIT_MS) {
+                    if (maxBatch == 1 && waitMs > 0) continue;
+                    try (MicroBatcher batcher = new MicroBatcher(env, session, maxBatch, waitMs)) {
+                        runClients(batcher, image, Math.max(1, clients / 4), 5); // warm-up
+                        batcher.getLatency().reset();
+                        long before = batcher.getImageCount(), batchesBefore = batcher.getBatchCount();
+
+                        long start = System.nanoTime();
+                        runClients(batcher, image, clients, perClient);
+                        double seconds = (System.nanoTime() - start) / 1e9;
+
+                        long done = batcher.getImageCount() - before;
+                        long batches = batcher.getBatchCount() - batchesBefore;
+                        LatencyStats latency = batcher.getLatency();
+                        System.out.printf("%6d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n",
+                                maxBatch, waitMs, done / seconds, (double) done / batches,
+                                latency.percentileMillis(50), latency.percentileMillis(95),
+                                latency.percentileMillis(99));
+                    }
+                }
+            }
+        }
+        image.release();
+    }
+
+    // Each client submits one image at a time and waits for its answer, like a kiosk would
+    private static void runClients(MicroBatcher batcher, Mat image, int clients, int perClient)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perClient; i++) {
+                        CompletableFuture<float[]> result = batcher.submit(image.clone());
+                        result.get();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,124 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Headless HTTP front end for MicroBatcher.
+ *
+ *   POST /classify  body = encoded image (JPEG/PNG)  ->  {"label":..,"confidence":..,
+ *                                                         "scores":{"cardboard":..,"glass":..,...}}
+ *   GET  /stats                                       ->  batch and latency counters
+ *
+ * scores holds the softmax probability of every class, keyed by class name.
+ *
+ * Decoding and resizing run on the HTTP worker threads; the model only ever sees
+ * batches assembled by the batcher.
+ */
+public class ClassificationServer {
+
+    // Longest a worker waits for its batch before answering 503
+    private static final long REQUEST_TIMEOUT_SECONDS = 10;
+
+    private final MicroBatcher batcher;
+    private final HttpServer server;
+    private final ExecutorService workers;
+
+    public ClassificationServer(MicroBatcher batcher, String host, int port, int workerThreads) throws IOException {
+        this.batcher = batcher;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        this.workers = Executors.newFixedThreadPool(workerThreads);
+        server.setExecutor(workers);
+        server.createContext("/classify", this::handleClassify);
+        server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        workers.shutdown();
+    }
+
+    private void handleClassify(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, "{\"error\":\"POST an image to /classify\"}");
+                return;
+            }
+
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            MatOfByte encoded = new MatOfByte(body);
+            Mat image = Imgcodecs.imdecode(encoded, Imgcodecs.IMREAD_COLOR);
+            encoded.release();
+            if (image.empty()) {
+                image.release();
+                send(exchange, 400, "{\"error\":\"Could not decode image\"}");
+                return;
+            }
+
+            Mat resized = new Mat();
+            Imgproc.resize(image, resized, new Size(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE));
+            image.release();
+
+            float[] logits = batcher.submit(resized).get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            send(exchange, 200, toJson(logits));
+        } catch (TimeoutException e) {
+            send(exchange, 503, "{\"error\":\"Timed out waiting for inference\"}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, "{\"error\":\"Interrupted\"}");
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            send(exchange, 500, "{\"error\":\"Inference failed\"}");
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        LatencyStats latency = batcher.getLatency();
+        String json = String.format("{\"images\":%d,\"batches\":%d,\"avgBatchSize\":%.2f,\"queueDepth\":%d,"
+                        + "\"latencyMs\":{\"mean\":%.2f,\"p50\":%.2f,\"p95\":%.2f,\"p99\":%.2f}}",
+                batcher.getImageCount(), batcher.getBatchCount(), batcher.getAverageBatchSize(),
+                batcher.getQueueDepth(), latency.meanMillis(), latency.percentileMillis(50),
+                latency.percentileMillis(95), latency.percentileMillis(99));
+        send(exchange, 200, json);
+    }
+
+    static String toJson(float[] logits) {
+        float[] probs = GarbageClassifier.softmax(logits);
+        int predIdx = GarbageClassifier.argMax(probs);
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"label\":\"").append(GarbageClassifier.CLASS_NAMES[predIdx]).append('"');
+        sb.append(",\"confidence\":").append(probs[predIdx]);
+        sb.append(",\"scores\":{");
+        for (int i = 0; i < probs.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(GarbageClassifier.CLASS_NAMES[i]).append("\":").append(probs[i]);
+        }
+        return sb.append("}}").toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
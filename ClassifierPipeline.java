@@ -0,0 +1,189 @@
+import ai.onnxruntime.*;
+import org.opencv.core.*;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs capture, preprocess+inference and rendering on three threads.
+ *
+ * The capture thread pushes every full frame to the render ring and a downscaled copy
+ * to the inference ring. Both rings drop their oldest frame when full, so the display
+ * keeps up with the camera while inference always works on the newest frame it can get.
+ * Rendering overlays whichever label inference published last. With a MotionGate set,
+ * frames of a static scene never reach the inference ring and keep the last label.
+ * Full and downscaled frames come from a MatPool and go back to it once rendered,
+ * classified or evicted, so the steady state allocates no native frame buffers.
+ */
+public class ClassifierPipeline {
+
+    private static final long POLL_MS = 100;
+
+    private final OrtEnvironment env;
+    private final OrtSession session;
+    private final VideoCapture cap;
+    private final FrameSurface surface;
+
+    private final DropOldestRing<Mat> inferQueue;
+    private final DropOldestRing<Mat> renderQueue;
+    private final MatPool pool;
+
+    private final AtomicLong captured = new AtomicLong();
+    private final AtomicLong inferred = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+
+    private MotionGate motionGate;
+    private volatile String latestLabel = "";
+    private volatile boolean running;
+    private Thread[] threads;
+
+    public ClassifierPipeline(OrtEnvironment env, OrtSession session, VideoCapture cap, FrameSurface surface,
+                              int inferQueueDepth, int renderQueueDepth) {
+        this.env = env;
+        this.session = session;
+        this.cap = cap;
+        this.surface = surface;
+        this.inferQueue = new DropOldestRing<>(inferQueueDepth);
+        this.renderQueue = new DropOldestRing<>(renderQueueDepth);
+        // Every ring slot, plus the frame each stage is working on
+        this.pool = new MatPool(inferQueueDepth + renderQueueDepth + 3);
+    }
+
+    /** Gate frames before inference; null (the default) classifies every frame. Call before start(). */
+    public void setMotionGate(MotionGate motionGate) {
+        this.motionGate = motionGate;
+    }
+
+    public void start() {
+        running = true;
+        threads = new Thread[]{
+                new Thread(this::captureLoop, "pipeline-capture"),
+                new Thread(this::inferLoop, "pipeline-infer"),
+                new Thread(this::renderLoop, "pipeline-render")
+        };
+        for (Thread t : threads) {
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread t : threads) t.join();
+        for (Mat m : inferQueue.drain()) pool.release(m);
+        for (Mat m : renderQueue.drain()) pool.release(m);
+        pool.close();
+    }
+
+    private void captureLoop() {
+        Size inputSize = new Size(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE);
+        // Geometry of the next frame, corrected from each frame actually read
+        int rows = (int) cap.get(Videoio.CAP_PROP_FRAME_HEIGHT);
+        int cols = (int) cap.get(Videoio.CAP_PROP_FRAME_WIDTH);
+        int type = CvType.CV_8UC3;
+        while (running) {
+            Mat frame = pool.acquire(rows, cols, type);
+            cap.read(frame);
+            if (frame.empty()) {
+                pool.release(frame);
+                continue;
+            }
+            rows = frame.rows();
+            cols = frame.cols();
+            type = frame.type();
+            captured.incrementAndGet();
+
+            if (motionGate == null || motionGate.shouldInfer(frame)) {
+                Mat resized = pool.acquire(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE, type);
+                Imgproc.resize(frame, resized, inputSize);
+                pool.release(inferQueue.offer(resized));
+            }
+            pool.release(renderQueue.offer(frame));
+        }
+    }
+
+    private void inferLoop() {
+        TensorPreprocessor preprocessor = new TensorPreprocessor(GarbageClassifier.IMG_SIZE);
+        long[] shape = {1, 3, GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE};
+        try (InferenceSession inference = new InferenceSession(env, session)) {
+            while (running) {
+                Mat resized = inferQueue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (resized == null) continue;
+
+                try {
+                    preprocessor.writeTensor(resized, inference.input(shape), 0);
+                    float[][] output = inference.run(shape);
+                    latestLabel = GarbageClassifier.formatLabel(output[0]);
+                    inferred.incrementAndGet();
+                } catch (OrtException | RuntimeException e) {
+                    // One bad frame or run should not stop the stage; show it instead of a stale label
+                    e.printStackTrace();
+                    latestLabel = "Inference error";
+                } finally {
+                    pool.release(resized);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void renderLoop() {
+        org.opencv.core.Point labelOrigin = new org.opencv.core.Point(10, 30);
+        Scalar labelColor = new Scalar(0, 255, 0);
+        try {
+            while (running) {
+                Mat frame = renderQueue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (frame == null) continue;
+
+                Imgproc.putText(frame, latestLabel, labelOrigin, Imgproc.FONT_HERSHEY_SIMPLEX, 1.0, labelColor, 2);
+                surface.present(frame);
+                pool.release(frame);
+                rendered.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getInferQueueDepth() {
+        return inferQueue.size();
+    }
+
+    public int getRenderQueueDepth() {
+        return renderQueue.size();
+    }
+
+    public long getInferDrops() {
+        return inferQueue.droppedCount();
+    }
+
+    public long getRenderDrops() {
+        return renderQueue.droppedCount();
+    }
+
+    public long getCapturedFrames() {
+        return captured.get();
+    }
+
+    public long getInferredFrames() {
+        return inferred.get();
+    }
+
+    public long getRenderedFrames() {
+        return rendered.get();
+    }
+
+    /** One-line summary of counters and queue occupancy for sizing the rings. */
+    public String stats() {
+        String counters = String.format("captured=%d inferred=%d rendered=%d | infer queue %d/%d dropped=%d | render queue %d/%d dropped=%d",
+                getCapturedFrames(), getInferredFrames(), getRenderedFrames(),
+                getInferQueueDepth(), inferQueue.capacity(), getInferDrops(),
+                getRenderQueueDepth(), renderQueue.capacity(), getRenderDrops());
+        counters += " | " + pool.stats();
+        return motionGate == null ? counters : counters + " | " + motionGate.stats();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Counts (actual, predicted) pairs for a classifier evaluation. Thread-safe.
+ */
+public class ConfusionMatrix {
+
+    private final String[] classNames;
+    private final long[][] counts;
+
+    public ConfusionMatrix(String[] classNames) {
+        this.classNames = classNames;
+        this.counts = new long[classNames.length][classNames.length];
+    }
+
+    public synchronized void record(int actual, int predicted) {
+        counts[actual][predicted]++;
+    }
+
+    public synchronized long total() {
+        long n = 0;
+        for (long[] row : counts) for (long c : row) n += c;
+        return n;
+    }
+
+    /** Top-1 accuracy over all samples, 0-1. */
+    public synchronized double accuracy() {
+        long correct = 0;
+        for (int i = 0; i < counts.length; i++) correct += counts[i][i];
+        long n = total();
+        return n == 0 ? 0 : (double) correct / n;
+    }
+
+    /** Fraction of class c's samples predicted as c (per-class accuracy, i.e. recall), 0-1. */
+    public synchronized double classAccuracy(int c) {
+        long n = 0;
+        for (long v : counts[c]) n += v;
+        return n == 0 ? 0 : (double) counts[c][c] / n;
+    }
+
+    /** Fraction of predictions of class c that were correct, 0-1. */
+    public synchronized double precision(int c) {
+        long predicted = 0;
+        for (long[] row : counts) predicted += row[c];
+        return predicted == 0 ? 0 : (double) counts[c][c] / predicted;
+    }
+
+    public double recall(int c) {
+        return classAccuracy(c);
+    }
+
+    public synchronized long support(int c) {
+        long n = 0;
+        for (long v : counts[c]) n += v;
+        return n;
+    }
+
+    /** Rows are actual classes, columns predicted. */
+    public synchronized String format() {
+        StringBuilder sb = new StringBuilder(String.format("%-12s", "actual\\pred"));
+        for (String name : classNames) sb.append(String.format("%10s", name));
+        sb.append('\n');
+        for (int i = 0; i < counts.length; i++) {
+            sb.append(String.format("%-12s", classNames[i]));
+            for (long c : counts[i]) sb.append(String.format("%10d", c));
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    public String className(int c) {
+        return classNames[c];
+    }
+
+    public int classCount() {
+        return classNames.length;
+    }
+}
@@ -0,0 +1,150 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.nio.FloatBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores a model against one of the dataset split files using every core.
+ *
+ * The split is cut into batches. Each batch is a fork-join task that decodes, resizes
+ * and normalizes its images in parallel straight into its own [N,3,224,224] input
+ * buffer, then runs the batch through the shared session. Up to inFlight batches are
+ * in progress at once, so decoding of one batch overlaps inference of another, and the
+ * session's intra-op threads are sized so the batches together fill the machine.
+ *
+ * Prints the confusion matrix, per-class precision/recall, images/sec and p50/p95/p99
+ * latency, where an image's latency runs from its batch starting to decode until the
+ * batch's scores are back.
+ *
+ * Usage: java DatasetEvaluator [model.onnx] [split.txt] [dataDir] [batchSize] [inFlight]
+ */
+public class DatasetEvaluator {
+
+    private static final ThreadLocal<TensorPreprocessor> PREPROCESSORS =
+            ThreadLocal.withInitial(() -> new TensorPreprocessor(GarbageClassifier.IMG_SIZE));
+
+    private final ConfusionMatrix matrix = new ConfusionMatrix(GarbageClassifier.CLASS_NAMES);
+    private final LatencyStats latency = new LatencyStats();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        String modelPath = args.length > 0 ? args[0] : "model.onnx";
+        String split = args.length > 1 ? args[1] : "one-indexed-files-notrash_test.txt";
+        String dataDir = args.length > 2 ? args[2] : "Garbage classification/Garbage classification";
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int inFlight = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+
+        List<DatasetSplit.Sample> samples = DatasetSplit.read(Paths.get(split), Paths.get(dataDir));
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%s: %d images, batch %d, %d batches in flight, %d cores%n",
+                split, samples.size(), batchSize, inFlight, cores);
+
+        DatasetEvaluator evaluator = new DatasetEvaluator();
+        ForkJoinPool pool = new ForkJoinPool(cores);
+        SessionTuner.Config config = new SessionTuner.Config("cpu", Math.max(1, cores / inFlight), OptLevel.ALL_OPT);
+        double seconds;
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession.SessionOptions options = config.toOptions();
+             OrtSession session = env.createSession(modelPath, options)) {
+
+            // One input-buffer wrapper per in-flight batch; the OrtSession itself is shared
+            BlockingQueue<InferenceSession> runners = new ArrayBlockingQueue<>(inFlight);
+            for (int i = 0; i < inFlight; i++) runners.add(new InferenceSession(env, session));
+
+            long start = System.nanoTime();
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int from = 0; from < samples.size(); from += batchSize) {
+                List<DatasetSplit.Sample> batch = samples.subList(from, Math.min(samples.size(), from + batchSize));
+                InferenceSession runner = runners.take();
+                tasks.add(pool.submit(() -> {
+                    try {
+                        evaluator.runBatch(runner, batch);
+                    } finally {
+                        runners.add(runner);
+                    }
+                    return null;
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) task.join();
+            seconds = (System.nanoTime() - start) / 1e9;
+
+            for (InferenceSession runner : runners) runner.close();
+        } finally {
+            pool.shutdown();
+        }
+
+        evaluator.print(seconds);
+    }
+
+    private void runBatch(InferenceSession runner, List<DatasetSplit.Sample> batch) throws Exception {
+        int n = batch.size();
+        int size = GarbageClassifier.IMG_SIZE;
+        int imageElements = 3 * size * size;
+        long[] shape = {n, 3, size, size};
+        FloatBuffer input = runner.input(shape);
+        boolean[] decoded = new boolean[n];
+
+        long start = System.nanoTime();
+        List<ForkJoinTask<?>> decodes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int idx = i;
+            decodes.add(ForkJoinTask.adapt(() -> decoded[idx] = decode(batch.get(idx), input, idx * imageElements)));
+        }
+        ForkJoinTask.invokeAll(decodes);
+
+        float[][] output = runner.run(shape);
+        long elapsed = System.nanoTime() - start;
+        for (int i = 0; i < n; i++) {
+            // Unreadable images leave stale data in their slot; their scores are ignored
+            if (!decoded[i]) {
+                skipped.incrementAndGet();
+                continue;
+            }
+            matrix.record(batch.get(i).label, GarbageClassifier.argMax(output[i]));
+            latency.record(elapsed);
+        }
+    }
+
+    // Each task writes only its own region of the batch buffer
+    private static boolean decode(DatasetSplit.Sample sample, FloatBuffer input, int offset) {
+        Mat image = Imgcodecs.imread(sample.path.toString(), Imgcodecs.IMREAD_COLOR);
+        if (image.empty()) return false;
+        Mat resized = new Mat();
+        Imgproc.resize(image, resized, new Size(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE));
+        image.release();
+        PREPROCESSORS.get().writeTensor(resized, input, offset);
+        resized.release();
+        return true;
+    }
+
+    private void print(double seconds) {
+        long images = matrix.total();
+        if (skipped.get() > 0) System.out.println("⚠️ Skipped " + skipped.get() + " unreadable images");
+        System.out.println();
+        System.out.print(matrix.format());
+        System.out.printf("%n%-12s %10s %10s %10s%n", "class", "precision", "recall", "support");
+        for (int c = 0; c < matrix.classCount(); c++) {
+            System.out.printf("%-12s %9.2f%% %9.2f%% %10d%n", matrix.className(c),
+                    matrix.precision(c) * 100, matrix.recall(c) * 100, matrix.support(c));
+        }
+        System.out.printf("%nTop-1 accuracy: %.2f%%%n", matrix.accuracy() * 100);
+        System.out.printf("Throughput:     %.1f images/s (%d images in %.2f s)%n", images / seconds, images, seconds);
+        System.out.printf("Latency:        p50 %.2f ms  p95 %.2f ms  p99 %.2f ms%n",
+                latency.percentileMillis(50), latency.percentileMillis(95), latency.percentileMillis(99));
+    }
+}
@@ -0,0 +1,54 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the "file label" split lists shipped with the dataset
+ * (one-indexed-files*.txt and zero-indexed-files.txt).
+ *
+ * The lists number classes in the original TrashNet order (glass, paper, cardboard,
+ * plastic, metal, trash); each sample's label is mapped to its index in
+ * GarbageClassifier.CLASS_NAMES, and its path resolves to dataDir/class/file, the
+ * same layout the training script reads.
+ */
+public class DatasetSplit {
+
+    private static final String[] LIST_ORDER = {"glass", "paper", "cardboard", "plastic", "metal", "trash"};
+
+    public static final class Sample {
+        public final Path path;
+        public final int label;
+
+        Sample(Path path, int label) {
+            this.path = path;
+            this.label = label;
+        }
+    }
+
+    private DatasetSplit() {
+    }
+
+    /** Zero- or one-indexed is decided from the file name. */
+    public static List<Sample> read(Path splitFile, Path dataDir) throws IOException {
+        int base = splitFile.getFileName().toString().startsWith("zero-indexed") ? 0 : 1;
+        List<Sample> samples = new ArrayList<>();
+        for (String line : Files.readAllLines(splitFile)) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            int space = line.lastIndexOf(' ');
+            if (space < 0) throw new IOException("Bad line in " + splitFile + ": " + line);
+
+            int listIdx = Integer.parseInt(line.substring(space + 1)) - base;
+            if (listIdx < 0 || listIdx >= LIST_ORDER.length) {
+                throw new IOException("Label out of range in " + splitFile + ": " + line);
+            }
+            String className = LIST_ORDER[listIdx];
+            int label = Arrays.asList(GarbageClassifier.CLASS_NAMES).indexOf(className);
+            samples.add(new Sample(dataDir.resolve(className).resolve(line.substring(0, space).trim()), label));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,107 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring buffer between pipeline stages. When full, offer() evicts the oldest
+ * element instead of blocking the producer, so a slow consumer never stalls the camera.
+ * Evicted elements are handed back to the caller so native resources can be released.
+ */
+public class DropOldestRing<T> {
+
+    private final Object[] items;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private int head;
+    private int count;
+    private long dropped;
+
+    public DropOldestRing(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.items = new Object[capacity];
+    }
+
+    /** Add an item, returning the evicted oldest item if the ring was full, else null. */
+    @SuppressWarnings("unchecked")
+    public T offer(T item) {
+        lock.lock();
+        try {
+            T evicted = null;
+            if (count == items.length) {
+                evicted = (T) items[head];
+                items[head] = null;
+                head = (head + 1) % items.length;
+                count--;
+                dropped++;
+            }
+            items[(head + count) % items.length] = item;
+            count++;
+            notEmpty.signal();
+            return evicted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Wait up to the given time for an item; returns null on timeout. */
+    @SuppressWarnings("unchecked")
+    public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            T item = (T) items[head];
+            items[head] = null;
+            head = (head + 1) % items.length;
+            count--;
+            return item;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Remove and return everything still queued. */
+    @SuppressWarnings("unchecked")
+    public List<T> drain() {
+        lock.lock();
+        try {
+            List<T> out = new ArrayList<>(count);
+            while (count > 0) {
+                out.add((T) items[head]);
+                items[head] = null;
+                head = (head + 1) % items.length;
+                count--;
+            }
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    public long droppedCount() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+import org.opencv.core.Mat;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+
+/**
+ * Swing component that displays OpenCV frames without per-frame allocation.
+ *
+ * It keeps one BufferedImage and reads each Mat straight into its DataBufferByte
+ * backing array, then repaints the frame's area. A new image is only allocated when
+ * the frame size or channel count changes. present() may be called from any thread.
+ */
+public class FrameSurface extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object lock = new Object();
+    private BufferedImage image;
+    private byte[] pixels;
+
+    public FrameSurface() {
+        setOpaque(true);
+        setBackground(Color.BLACK);
+    }
+
+    /** Show the frame. */
+    public void present(Mat frame) {
+        int type = frame.channels() == 1 ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_3BYTE_BGR;
+        boolean reallocated = false;
+        synchronized (lock) {
+            if (image == null || image.getWidth() != frame.cols() || image.getHeight() != frame.rows()
+                    || image.getType() != type) {
+                image = new BufferedImage(frame.cols(), frame.rows(), type);
+                pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+                reallocated = true;
+            }
+            frame.get(0, 0, pixels);
+        }
+
+        if (reallocated) {
+            SwingUtilities.invokeLater(() -> {
+                revalidate();
+                repaint();
+            });
+        } else {
+            repaint(0, 0, frame.cols(), frame.rows());
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        synchronized (lock) {
+            if (image != null) g.drawImage(image, 0, 0, null);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        synchronized (lock) {
+            return image == null ? super.getPreferredSize() : new Dimension(image.getWidth(), image.getHeight());
+        }
+    }
+}
@@ -189,5 +189,6 @@ for epoch in range(NUM_EPOCHS_FINE_TUNE):
 dummy_input = torch.randn(1, 3, IMG_SIZE, IMG_SIZE, device=DEVICE)
 torch.onnx.export(model, dummy_input, ONNX_EXPORT_PATH,
                   input_names=['input'], output_names=['output'],
-                  opset_version=11, export_params=True)
+                  opset_version=11, export_params=True,
+                  dynamic_axes={'input': {0: 'batch'}, 'output': {0: 'batch'}})
 print(f"✅ Model exported to {ONNX_EXPORT_PATH}")
@@ -6,103 +6,266 @@ import org.opencv.imgcodecs.Imgcodecs;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
-import java.nio.FloatBuffer;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.util.Collections;
+import java.util.List;
 
 public class GarbageClassifier {
 
     private static final String MODEL_PATH = "model.onnx";
-    private static final String[] CLASS_NAMES = {"cardboard","glass","metal","paper","plastic","trash"};
-    private static final int IMG_SIZE = 224;
+    private static final String INT8_MODEL_PATH = "model_int8.onnx";
+    static final String[] CLASS_NAMES = {"cardboard","glass","metal","paper","plastic","trash"};
+    static final int IMG_SIZE = 224;
+    private static final String STREAM_COMMANDS = "Commands: add <source> | remove <id> | stats | quit";
 
     public static void main(String[] args) throws Exception {
         System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
 
+        // Headless server mode: no window, no webcam
+        if (hasFlag(args, "--server")) {
+            runServer(args);
+            return;
+        }
+
+        // Headless multi-camera mode: --streams=0,1,clip.mp4
+        if (stringOption(args, "--streams", null) != null) {
+            runStreams(args);
+            return;
+        }
+
+        // Headless video-file mode: --video=shift.mp4 [--out=labels.csv|labels.jsonl]
+        String video = stringOption(args, "--video", null);
+        if (video != null) {
+            VideoFileClassifier.run(video, stringOption(args, "--out", video + ".csv"), modelPath(args),
+                    intOption(args, "--batch-size", 16), intOption(args, "--in-flight", 2));
+            return;
+        }
+
         // Create Swing window
         JFrame frameWindow = new JFrame("Garbage Classifier");
-        JLabel imageLabel = new JLabel();
-        frameWindow.getContentPane().add(imageLabel);
+        FrameSurface surface = new FrameSurface();
+        frameWindow.getContentPane().add(surface);
         frameWindow.setSize(1920, 1080);
         frameWindow.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frameWindow.setVisible(true);
 
-        // Load ONNX model
-        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
-             OrtSession session = env.createSession(MODEL_PATH, new OrtSession.SessionOptions())) {
+        VideoCapture cap = new VideoCapture(0);
+        if (!cap.isOpened()) {
+            System.out.println("❌ Cannot access webcam");
+            return;
+        }
 
-            VideoCapture cap = new VideoCapture(0);
-            if (!cap.isOpened()) {
-                System.out.println("❌ Cannot access webcam");
-                return;
+        // --backend=opencv runs the model on OpenCV DNN instead of ONNX Runtime
+        if (stringOption(args, "--backend", "onnxruntime").equals("opencv")) {
+            try (OpenCvDnnBackend backend = new OpenCvDnnBackend(modelPath(args))) {
+                classifyLoop(backend, cap, surface, args);
             }
+            return;
+        }
+
+        // Load ONNX model with the session options tuned for this machine
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession session = SessionTuner.createSession(env, modelPath(args), new long[]{1, 3, IMG_SIZE, IMG_SIZE});
+             InferenceSession inference = new InferenceSession(env, session)) {
 
-            Mat frameMat = new Mat();
-            while (true) {
-                cap.read(frameMat);
-                if (frameMat.empty()) continue;
+            // Pipelined mode: capture, inference and rendering on separate threads
+            if (hasFlag(args, "--pipeline")) {
+                ClassifierPipeline pipeline = new ClassifierPipeline(env, session, cap, surface,
+                        intOption(args, "--infer-queue", 2), intOption(args, "--render-queue", 2));
+                pipeline.setMotionGate(motionGate(args));
+                pipeline.start();
+                while (true) {
+                    Thread.sleep(5000);
+                    System.out.println(pipeline.stats());
+                }
+            }
 
-                // Preprocess for model
-                Mat resized = new Mat();
-                Imgproc.resize(frameMat, resized, new Size(IMG_SIZE, IMG_SIZE));
-                float[] inputData = matToTensor(resized);
+            classifyLoop(inference, cap, surface, args);
+        }
+    }
 
-                OnnxTensor inputTensor = OnnxTensor.createTensor(env, FloatBuffer.wrap(inputData),
-                        new long[]{1, 3, IMG_SIZE, IMG_SIZE});
-                OrtSession.Result results = session.run(Collections.singletonMap("input", inputTensor));
-                float[][] output = (float[][]) results.get(0).getValue();
+    // Serial capture -> classify -> draw loop; never returns
+    private static void classifyLoop(InferenceBackend inference, VideoCapture cap, FrameSurface surface,
+                                     String[] args) throws Exception {
+        long[] shape = {1, 3, IMG_SIZE, IMG_SIZE};
+        TensorPreprocessor preprocessor = new TensorPreprocessor(IMG_SIZE);
+        MotionGate gate = motionGate(args);
+        // --regions: classify each detected object instead of the whole frame
+        RegionClassifier regionClassifier = hasFlag(args, "--regions")
+                ? new RegionClassifier(inference, intOption(args, "--max-regions", 4),
+                        doubleOption(args, "--min-area", 1.0))
+                : null;
+        List<RegionClassifier.Detection> detections = Collections.emptyList();
+        String label = "";
+        long frames = 0;
+        Size inputSize = new Size(IMG_SIZE, IMG_SIZE);
+        org.opencv.core.Point labelOrigin = new org.opencv.core.Point(10, 30);
+        Scalar labelColor = new Scalar(0, 255, 0);
+        MatPool pool = new MatPool(2);
+        Mat frameMat = new Mat();
+        while (true) {
+            cap.read(frameMat);
+            if (frameMat.empty()) continue;
 
-                int predIdx = argMax(output[0]);
-                float conf = softmax(output[0])[predIdx] * 100;
-                String label = String.format("%s: %.2f%%", CLASS_NAMES[predIdx], conf);
+            // Static scene: keep showing the last prediction
+            if (gate == null || gate.shouldInfer(frameMat)) {
+                if (regionClassifier != null) {
+                    detections = regionClassifier.classify(frameMat);
+                } else {
+                    // Preprocess for model
+                    Mat resized = pool.acquire(IMG_SIZE, IMG_SIZE, frameMat.type());
+                    Imgproc.resize(frameMat, resized, inputSize);
+                    preprocessor.writeTensor(resized, inference.input(shape), 0);
+                    pool.release(resized);
 
-                // Draw label on frame
-                Imgproc.putText(frameMat, label, new org.opencv.core.Point(10, 30),
-                Imgproc.FONT_HERSHEY_SIMPLEX, 1.0, new Scalar(0, 255, 0), 2);
+                    float[][] output = inference.run(shape);
 
+                    label = formatLabel(output[0]);
+                }
+            }
+            if (++frames % 300 == 0) {
+                System.out.println(pool.stats());
+                if (gate != null) System.out.println(gate.stats());
+                if (regionClassifier != null) System.out.println(regionClassifier.stats());
+            }
 
-                // Convert Mat to BufferedImage
-                BufferedImage bufferedImage = matToBufferedImage(frameMat);
-                imageLabel.setIcon(new ImageIcon(bufferedImage));
-                imageLabel.repaint();
+            // Draw label(s) on frame
+            if (regionClassifier != null) {
+                RegionClassifier.draw(frameMat, detections);
+            } else {
+                Imgproc.putText(frameMat, label, labelOrigin, Imgproc.FONT_HERSHEY_SIMPLEX, 1.0, labelColor, 2);
             }
+
+
+            // Copy the frame into the reused display image
+            surface.present(frameMat);
         }
     }
 
-    // Convert OpenCV Mat to BufferedImage
-    private static BufferedImage matToBufferedImage(Mat mat) {
-        int type = BufferedImage.TYPE_3BYTE_BGR;
-        if (mat.channels() == 1) type = BufferedImage.TYPE_BYTE_GRAY;
-
-        byte[] b = new byte[mat.channels() * mat.cols() * mat.rows()];
-        mat.get(0, 0, b);
-        BufferedImage image = new BufferedImage(mat.cols(), mat.rows(), type);
-        final byte[] targetPixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
-        System.arraycopy(b, 0, targetPixels, 0, b.length);
-        return image;
+    private static void runServer(String[] args) throws Exception {
+        int port = intOption(args, "--port", 8080);
+        int maxBatch = intOption(args, "--max-batch", 8);
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession session = SessionTuner.createSession(env, modelPath(args),
+                     new long[]{maxBatch, 3, IMG_SIZE, IMG_SIZE});
+             MicroBatcher batcher = new MicroBatcher(env, session, maxBatch, intOption(args, "--max-wait-ms", 10))) {
+
+            ClassificationServer server = new ClassificationServer(batcher, "127.0.0.1", port,
+                    intOption(args, "--http-threads", 32));
+            server.start();
+            System.out.println("Classification server listening on http://127.0.0.1:" + port + "/classify");
+            Thread.currentThread().join();
+        }
     }
 
-    // Preprocess Mat to float tensor for ONNX
-    private static float[] matToTensor(Mat mat) {
-        float[] data = new float[3 * IMG_SIZE * IMG_SIZE];
-        int idx = 0;
-        float[] mean = {0.485f,0.456f,0.406f};
-        float[] std = {0.229f,0.224f,0.225f};
-
-        for (int y=0; y<IMG_SIZE; y++) {
-            for (int x=0; x<IMG_SIZE; x++) {
-                double[] px = mat.get(y,x);
-                data[idx] = (float)((px[2]/255.0 - mean[0])/std[0]);
-                data[idx + IMG_SIZE*IMG_SIZE] = (float)((px[1]/255.0 - mean[1])/std[1]);
-                data[idx + 2*IMG_SIZE*IMG_SIZE] = (float)((px[0]/255.0 - mean[2])/std[2]);
-                idx++;
+    private static void runStreams(String[] args) throws Exception {
+        int maxBatch = intOption(args, "--max-batch", 4);
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession session = SessionTuner.createSession(env, modelPath(args),
+                     new long[]{maxBatch, 3, IMG_SIZE, IMG_SIZE})) {
+
+            MultiStreamClassifier classifier = new MultiStreamClassifier(env, session, maxBatch);
+            classifier.start();
+            for (String source : stringOption(args, "--streams", "").split(",")) {
+                if (source.isEmpty()) continue;
+                MultiStreamClassifier.Stream s = classifier.addStream(source.trim());
+                System.out.println(s == null ? "❌ Cannot open " + source : "Stream " + s.getId() + ": " + source);
+            }
+
+            // Report in the background; stdin takes "add <source>", "remove <id>", "stats" and "quit"
+            Thread reporter = new Thread(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(5000);
+                        System.out.println(classifier.stats());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "stream-stats");
+            reporter.setDaemon(true);
+            reporter.start();
+
+            BufferedReader console = new BufferedReader(new InputStreamReader(System.in));
+            for (String line; (line = console.readLine()) != null; ) {
+                String[] cmd = line.trim().split("\\s+", 2);
+                if (cmd[0].equals("add") && cmd.length == 2) {
+                    MultiStreamClassifier.Stream s = classifier.addStream(cmd[1]);
+                    System.out.println(s == null ? "❌ Cannot open " + cmd[1] : "Stream " + s.getId() + ": " + cmd[1]);
+                } else if (cmd[0].equals("remove") && cmd.length == 2) {
+                    int id;
+                    try {
+                        id = Integer.parseInt(cmd[1]);
+                    } catch (NumberFormatException e) {
+                        System.out.println(STREAM_COMMANDS);
+                        continue;
+                    }
+                    boolean removed = classifier.removeStream(id);
+                    System.out.println(removed ? "Removed stream " + cmd[1] : "No stream " + cmd[1]);
+                } else if (cmd[0].equals("stats")) {
+                    System.out.println(classifier.stats());
+                } else if (cmd[0].equals("quit")) {
+                    break;
+                } else if (!cmd[0].isEmpty()) {
+                    System.out.println(STREAM_COMMANDS);
+                }
             }
+            reporter.interrupt();
+            classifier.stop();
         }
-        return data;
     }
 
-    private static int argMax(float[] arr) {
+    // --motion-gate enables it; --motion-threshold is the changed-pixel percentage
+    private static MotionGate motionGate(String[] args) {
+        if (!hasFlag(args, "--motion-gate")) return null;
+        return new MotionGate(intOption(args, "--motion-width", 160),
+                doubleOption(args, "--motion-threshold", 2.0), intOption(args, "--motion-refresh", 300));
+    }
+
+    // INT8 model when ModelGate found it accurate enough, FP32 otherwise
+    private static String modelPath(String[] args) {
+        String path = ModelSelection.choose(MODEL_PATH, INT8_MODEL_PATH,
+                doubleOption(args, "--int8-margin", ModelSelection.DEFAULT_MARGIN));
+        System.out.println("Using model " + path);
+        return path;
+    }
+
+    static boolean hasFlag(String[] args, String flag) {
+        for (String a : args) if (a.equals(flag)) return true;
+        return false;
+    }
+
+    // Reads "--name=value" style options, falling back to def when absent
+    static int intOption(String[] args, String name, int def) {
+        for (String a : args) {
+            if (a.startsWith(name + "=")) return Integer.parseInt(a.substring(name.length() + 1));
+        }
+        return def;
+    }
+
+    static String stringOption(String[] args, String name, String def) {
+        for (String a : args) {
+            if (a.startsWith(name + "=")) return a.substring(name.length() + 1);
+        }
+        return def;
+    }
+
+    static double doubleOption(String[] args, String name, double def) {
+        for (String a : args) {
+            if (a.startsWith(name + "=")) return Double.parseDouble(a.substring(name.length() + 1));
+        }
+        return def;
+    }
+
+    // "class: confidence%" for the top prediction of a logits row
+    static String formatLabel(float[] logits) {
+        int predIdx = argMax(logits);
+        float conf = softmax(logits)[predIdx] * 100;
+        return String.format("%s: %.2f%%", CLASS_NAMES[predIdx], conf);
+    }
+
+    static int argMax(float[] arr) {
         int idx=0; float max=arr[0];
         for(int i=1;i<arr.length;i++){
             if(arr[i]>max){ max=arr[i]; idx=i; }
@@ -110,7 +273,7 @@ public class GarbageClassifier {
         return idx;
     }
 
-    private static float[] softmax(float[] logits){
+    static float[] softmax(float[] logits){
         float max=Float.NEGATIVE_INFINITY;
         for(float v: logits) if(v>max) max=v;
         float sum=0f;
@@ -0,0 +1,27 @@
+import java.nio.FloatBuffer;
+
+/**
+ * A model runtime behind the shared preprocess/postprocess contract.
+ *
+ * Callers write normalized NCHW floats (TensorPreprocessor.writeTensor) into
+ * {@link #input(long...)} and get one row of logits per image back from
+ * {@link #run(long...)}; softmax/argMax stay in GarbageClassifier. Implementations
+ * reuse their input buffer per shape and are not thread-safe.
+ */
+public interface InferenceBackend extends AutoCloseable {
+
+    /** Short name for reports and the --backend option. */
+    String name();
+
+    /** The reusable direct input buffer for this shape, rewound to position 0. */
+    FloatBuffer input(long... shape) throws Exception;
+
+    /** Run the model on the current contents of the input buffer for this shape. */
+    float[][] run(long... shape) throws Exception;
+
+    /** Native bytes the backend reports holding for inputs, weights and activations. */
+    long nativeBytesInUse();
+
+    @Override
+    void close();
+}
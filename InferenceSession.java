@@ -0,0 +1,142 @@
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import java.io.IOException;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps an OrtSession so the inference loop never leaks native memory.
+ *
+ * One direct input buffer and one OnnxTensor backed by it are created per input shape
+ * and reused for every run; callers write into {@link #input(long...)} and then call
+ * {@link #run(long...)}. Results are closed before run() returns. Not thread-safe:
+ * give each inference thread its own wrapper.
+ */
+public class InferenceSession implements InferenceBackend {
+
+    private static final class Slot {
+        final long[] shape;
+        final FloatBuffer buffer;
+        final OnnxTensor tensor;
+        final Map<String, OnnxTensor> inputs;
+
+        Slot(long[] shape, FloatBuffer buffer, OnnxTensor tensor, String inputName) {
+            this.shape = shape;
+            this.buffer = buffer;
+            this.tensor = tensor;
+            this.inputs = Collections.singletonMap(inputName, tensor);
+        }
+    }
+
+    private final OrtEnvironment env;
+    private final OrtSession session;
+    private final String inputName;
+    private final List<Slot> slots = new ArrayList<>();
+    private long inputBytes;
+
+    public InferenceSession(OrtEnvironment env, OrtSession session) {
+        this.env = env;
+        this.session = session;
+        this.inputName = session.getInputNames().iterator().next();
+    }
+
+    @Override
+    public String name() {
+        return "onnxruntime";
+    }
+
+    /** The reusable direct input buffer for this shape, rewound to position 0. */
+    public FloatBuffer input(long... shape) throws OrtException {
+        FloatBuffer buffer = slot(shape).buffer;
+        buffer.rewind();
+        return buffer;
+    }
+
+    /** Run the model on the current contents of the input buffer for this shape. */
+    public float[][] run(long... shape) throws OrtException {
+        Slot slot = slot(shape);
+        try (OrtSession.Result results = session.run(slot.inputs)) {
+            return (float[][]) results.get(0).getValue();
+        }
+    }
+
+    private Slot slot(long[] shape) throws OrtException {
+        for (Slot s : slots) {
+            if (Arrays.equals(s.shape, shape)) return s;
+        }
+
+        long elements = 1;
+        for (long d : shape) elements *= d;
+        FloatBuffer buffer = ByteBuffer.allocateDirect(Math.toIntExact(elements * Float.BYTES))
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        // A direct, native-order buffer backs the tensor without a copy
+        OnnxTensor tensor = OnnxTensor.createTensor(env, buffer, shape);
+        Slot s = new Slot(shape.clone(), buffer, tensor, inputName);
+        slots.add(s);
+        inputBytes += elements * Float.BYTES;
+        return s;
+    }
+
+    public OrtSession getSession() {
+        return session;
+    }
+
+    /** Bytes held by the pre-allocated input tensors. */
+    public long nativeBytesInUse() {
+        return inputBytes;
+    }
+
+    /** Total direct ByteBuffer memory in this JVM. */
+    public static long directBytesInUse() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) return pool.getMemoryUsed();
+        }
+        return -1;
+    }
+
+    /**
+     * Resident set size of the process, which includes ORT's own allocations that the
+     * JVM cannot see. Read from VmRSS in /proc/self/status, which the kernel already
+     * reports in kB whatever the page size. Returns -1 where /proc is unavailable.
+     */
+    public static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/self/status"), StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).trim().split("\\s+")[0]) * 1024;
+                }
+            }
+            return -1;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    public String memoryReport() {
+        return String.format("input tensors=%d KB direct=%d KB rss=%d KB",
+                nativeBytesInUse() / 1024, directBytesInUse() / 1024, residentBytes() / 1024);
+    }
+
+    /** Closes the cached tensors. The OrtSession stays owned by the caller. */
+    @Override
+    public void close() {
+        for (Slot s : slots) s.tensor.close();
+        slots.clear();
+        inputBytes = 0;
+    }
+}
@@ -0,0 +1,37 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+
+import java.nio.FloatBuffer;
+import java.util.Random;
+
+/**
+ * Runs the model in a tight loop through InferenceSession and prints memory use at
+ * intervals. Over a long run the rss column should level off instead of climbing.
+ *
+ * Usage: java InferenceSoak [model.onnx] [iterations] [reportEvery]
+ */
+public class InferenceSoak {
+
+    public static void main(String[] args) throws Exception {
+        String modelPath = args.length > 0 ? args[0] : "model.onnx";
+        long iterations = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        long reportEvery = args.length > 2 ? Long.parseLong(args[2]) : 1_000;
+        long[] shape = {1, 3, GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE};
+
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession session = env.createSession(modelPath, new OrtSession.SessionOptions());
+             InferenceSession inference = new InferenceSession(env, session)) {
+
+            Random random = new Random(42);
+            for (long i = 1; i <= iterations; i++) {
+                FloatBuffer input = inference.input(shape);
+                while (input.hasRemaining()) input.put(random.nextFloat());
+                inference.run(shape);
+
+                if (i % reportEvery == 0) {
+                    System.out.println("iteration " + i + ": " + inference.memoryReport());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.Arrays;
+
+/**
+ * Thread-safe latency recorder that keeps the most recent samples in a fixed ring,
+ * so long-running servers report percentiles without unbounded memory.
+ */
+public class LatencyStats {
+
+    private final long[] samples;
+    private int next;
+    private long count;
+    private long totalNanos;
+
+    public LatencyStats() {
+        this(100_000);
+    }
+
+    public LatencyStats(int window) {
+        this.samples = new long[window];
+    }
+
+    public synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count++;
+        totalNanos += nanos;
+    }
+
+    public synchronized long count() {
+        return count;
+    }
+
+    public synchronized double meanMillis() {
+        return count == 0 ? 0 : totalNanos / 1e6 / count;
+    }
+
+    /** Percentile (0-100) over the retained window, in milliseconds. */
+    public synchronized double percentileMillis(double p) {
+        int n = (int) Math.min(count, samples.length);
+        if (n == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(p / 100.0 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, idx))] / 1e6;
+    }
+
+    public synchronized void reset() {
+        next = 0;
+        count = 0;
+        totalNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms",
+                count(), meanMillis(), percentileMillis(50), percentileMillis(95), percentileMillis(99));
+    }
+}
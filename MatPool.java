@@ -0,0 +1,104 @@
+import org.opencv.core.Mat;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reusable native buffers for per-frame intermediates, keyed by rows, cols and type.
+ *
+ * acquire() hands out a pooled Mat of that geometry, allocating only on a miss, and
+ * release() puts it back for the next frame, so once every stage has warmed up a frame
+ * makes no native allocations. Mats that are handed out and never returned show up as
+ * outstanding; a returned Mat whose data pointer changed was reallocated by an OpenCV
+ * call writing a different size or type into it, which the realloc counter exposes.
+ * At most maxPerKey idle Mats are kept per geometry; extra returns are freed.
+ * Thread-safe, so a frame can be acquired on one pipeline stage and released on another.
+ */
+public class MatPool implements AutoCloseable {
+
+    private final int maxPerKey;
+    private final Map<Long, ArrayDeque<Mat>> idle = new HashMap<>();
+    // Handed-out Mats and their data pointer at acquire time
+    private final Map<Mat, Long> outstanding = new IdentityHashMap<>();
+    private long hits;
+    private long misses;
+    private long reallocs;
+    private long discarded;
+
+    public MatPool(int maxPerKey) {
+        if (maxPerKey < 1) throw new IllegalArgumentException("maxPerKey must be >= 1");
+        this.maxPerKey = maxPerKey;
+    }
+
+    /** A Mat with this geometry; its contents are whatever the previous user left. */
+    public synchronized Mat acquire(int rows, int cols, int type) {
+        ArrayDeque<Mat> free = idle.get(key(rows, cols, type));
+        Mat m = free == null ? null : free.poll();
+        if (m != null) {
+            hits++;
+        } else {
+            misses++;
+            m = new Mat(rows, cols, type);
+        }
+        outstanding.put(m, m.dataAddr());
+        return m;
+    }
+
+    /** Return a Mat from acquire(); null is ignored. */
+    public synchronized void release(Mat m) {
+        if (m == null) return;
+        Long addr = outstanding.remove(m);
+        if (m.empty()) {
+            // e.g. a failed capture read; nothing worth keeping
+            m.release();
+            return;
+        }
+        if (addr != null && addr != m.dataAddr()) reallocs++;
+        ArrayDeque<Mat> free = idle.computeIfAbsent(key(m.rows(), m.cols(), m.type()), k -> new ArrayDeque<>());
+        if (free.size() < maxPerKey) {
+            free.push(m);
+        } else {
+            discarded++;
+            m.release();
+        }
+    }
+
+    private static long key(int rows, int cols, int type) {
+        return ((long) rows << 40) | ((long) cols << 16) | type;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getReallocs() {
+        return reallocs;
+    }
+
+    /** Mats acquired and not yet released; a count that keeps growing is a leak. */
+    public synchronized int getOutstanding() {
+        return outstanding.size();
+    }
+
+    public synchronized String stats() {
+        int pooled = 0;
+        for (ArrayDeque<Mat> free : idle.values()) pooled += free.size();
+        return String.format("mat pool: hits=%d misses=%d reallocs=%d outstanding=%d idle=%d discarded=%d",
+                hits, misses, reallocs, outstanding.size(), pooled, discarded);
+    }
+
+    /** Free the idle Mats; outstanding ones stay with their holders. */
+    @Override
+    public synchronized void close() {
+        for (ArrayDeque<Mat> free : idle.values()) {
+            for (Mat m : free) m.release();
+        }
+        idle.clear();
+    }
+}
@@ -0,0 +1,171 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Mat;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects single-image requests into [N,3,224,224] batches.
+ *
+ * A batch is closed when it holds maxBatch images or maxWaitMs has passed since its
+ * first image arrived, whichever comes first. It then runs through the session once
+ * and each caller's future completes with its own row of logits.
+ * All model work happens on one worker thread.
+ */
+public class MicroBatcher implements AutoCloseable {
+
+    private static final class Pending {
+        final Mat image;
+        final CompletableFuture<float[]> result = new CompletableFuture<>();
+        final long submitted = System.nanoTime();
+
+        Pending(Mat image) {
+            this.image = image;
+        }
+    }
+
+    private final InferenceSession inference;
+    private final TensorPreprocessor preprocessor = new TensorPreprocessor(GarbageClassifier.IMG_SIZE);
+    private final int maxBatch;
+    private final long maxWaitNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    // Guards running against submit, so nothing is queued after the worker's final drain
+    private final Object lock = new Object();
+    private volatile boolean running = true;
+
+    private final LatencyStats latency = new LatencyStats();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong images = new AtomicLong();
+
+    public MicroBatcher(OrtEnvironment env, OrtSession session, int maxBatch, long maxWaitMs) {
+        if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be >= 1");
+        this.inference = new InferenceSession(env, session);
+        this.maxBatch = maxBatch;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.worker = new Thread(this::batchLoop, "micro-batcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queue a 224x224 BGR image for classification. The batcher takes ownership of
+     * the Mat and releases it once it has been copied into the batch tensor.
+     */
+    public CompletableFuture<float[]> submit(Mat resized) {
+        Pending p = new Pending(resized);
+        synchronized (lock) {
+            if (running) {
+                queue.add(p);
+                return p.result;
+            }
+        }
+        resized.release();
+        p.result.completeExceptionally(new IllegalStateException("Batcher is closed"));
+        return p.result;
+    }
+
+    private void batchLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running) {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+
+                long deadline = first.submitted + maxWaitNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+
+                runBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Pending p : batch) fail(p, new IllegalStateException("Batcher is closed"));
+        for (Pending p; (p = queue.poll()) != null; ) fail(p, new IllegalStateException("Batcher is closed"));
+    }
+
+    private void runBatch(List<Pending> batch) {
+        int n = batch.size();
+        int imageElements = 3 * GarbageClassifier.IMG_SIZE * GarbageClassifier.IMG_SIZE;
+        long[] shape = {n, 3, GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE};
+        try {
+            FloatBuffer input = inference.input(shape);
+            for (int i = 0; i < n; i++) {
+                Mat image = batch.get(i).image;
+                preprocessor.writeTensor(image, input, i * imageElements);
+                image.release();
+            }
+
+            float[][] output = inference.run(shape);
+            long now = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                Pending p = batch.get(i);
+                latency.record(now - p.submitted);
+                p.result.complete(output[i]);
+            }
+            batches.incrementAndGet();
+            images.addAndGet(n);
+        } catch (Exception e) {
+            for (Pending p : batch) fail(p, e);
+        }
+    }
+
+    private static void fail(Pending p, Exception e) {
+        p.image.release();
+        p.result.completeExceptionally(e);
+    }
+
+    public LatencyStats getLatency() {
+        return latency;
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getImageCount() {
+        return images.get();
+    }
+
+    public double getAverageBatchSize() {
+        long b = batches.get();
+        return b == 0 ? 0 : (double) images.get() / b;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /** Fail queued requests and close the session once the worker has stopped. */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            running = false;
+        }
+        // The worker still owns the session, so wait for it even if interrupted
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        inference.close();
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
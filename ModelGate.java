@@ -0,0 +1,152 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.File;
+import java.io.Writer;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Accuracy/latency gate for the INT8 model.
+ *
+ * Runs the FP32 and INT8 models over the same split, image by image, and reports
+ * top-1 accuracy, per-class accuracy and p50/p99 inference latency for each.
+ * The results go to model-gate.properties, which ModelSelection reads to decide
+ * whether the quantized model may be used. Copy the file into the Android app's
+ * assets as model_gate.properties to gate the on-device model the same way.
+ *
+ * Usage: java ModelGate [fp32.onnx] [int8.onnx] [split.txt] [dataDir] [marginPct]
+ */
+public class ModelGate {
+
+    private static final int WARMUP_RUNS = 5;
+
+    private static final class Result {
+        final String path;
+        final ConfusionMatrix matrix = new ConfusionMatrix(GarbageClassifier.CLASS_NAMES);
+        final LatencyStats latency = new LatencyStats();
+
+        Result(String path) {
+            this.path = path;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        String fp32Path = args.length > 0 ? args[0] : "model.onnx";
+        String int8Path = args.length > 1 ? args[1] : "model_int8.onnx";
+        String split = args.length > 2 ? args[2] : "one-indexed-files-notrash_test.txt";
+        String dataDir = args.length > 3 ? args[3] : "Garbage classification/Garbage classification";
+        double margin = args.length > 4 ? Double.parseDouble(args[4]) : ModelSelection.DEFAULT_MARGIN;
+
+        List<DatasetSplit.Sample> samples = DatasetSplit.read(Paths.get(split), Paths.get(dataDir));
+        System.out.println("Evaluating " + samples.size() + " images from " + split);
+
+        int size = GarbageClassifier.IMG_SIZE;
+        long[] shape = {1, 3, size, size};
+        Result fp32 = new Result(fp32Path);
+        Result int8 = new Result(int8Path);
+        int skipped = 0;
+
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession fp32Session = SessionTuner.createSession(env, fp32Path, shape);
+             OrtSession int8Session = SessionTuner.createSession(env, int8Path, shape);
+             InferenceSession fp32Inference = new InferenceSession(env, fp32Session);
+             InferenceSession int8Inference = new InferenceSession(env, int8Session)) {
+
+            TensorPreprocessor preprocessor = new TensorPreprocessor(size);
+            Mat resized = new Mat();
+            boolean warm = false;
+            for (DatasetSplit.Sample sample : samples) {
+                Mat image = Imgcodecs.imread(sample.path.toString(), Imgcodecs.IMREAD_COLOR);
+                if (image.empty()) {
+                    skipped++;
+                    continue;
+                }
+                Imgproc.resize(image, resized, new Size(size, size));
+                image.release();
+
+                // Both models see the identical tensor
+                FloatBuffer input = fp32Inference.input(shape);
+                preprocessor.writeTensor(resized, input, 0);
+                int8Inference.input(shape).put(input);
+
+                if (!warm) {
+                    for (int i = 0; i < WARMUP_RUNS; i++) {
+                        fp32Inference.run(shape);
+                        int8Inference.run(shape);
+                    }
+                    warm = true;
+                }
+                evaluate(fp32Inference, shape, sample.label, fp32);
+                evaluate(int8Inference, shape, sample.label, int8);
+            }
+            resized.release();
+        }
+
+        if (skipped > 0) System.out.println("⚠️ Skipped " + skipped + " unreadable images");
+        if (fp32.matrix.total() == 0) {
+            System.out.println("❌ No images evaluated; check the data directory");
+            return;
+        }
+
+        print(fp32);
+        print(int8);
+        double fp32Top1 = fp32.matrix.accuracy() * 100;
+        double int8Top1 = int8.matrix.accuracy() * 100;
+        boolean pass = ModelSelection.withinMargin(fp32Top1, int8Top1, margin);
+        System.out.printf(Locale.US, "%nINT8 top-1 %+.2f pts vs FP32, p50 latency x%.2f -> %s (margin %.2f pts)%n",
+                int8Top1 - fp32Top1,
+                fp32.latency.percentileMillis(50) / int8.latency.percentileMillis(50),
+                pass ? "✅ INT8 selected" : "❌ FP32 kept", margin);
+
+        Properties report = new Properties();
+        report.setProperty("split", split);
+        report.setProperty("images", String.valueOf(fp32.matrix.total()));
+        report.setProperty("margin", String.valueOf(margin));
+        report.setProperty("selected", pass ? "int8" : "fp32");
+        store(report, "fp32", fp32);
+        store(report, "int8", int8);
+        try (Writer out = Files.newBufferedWriter(ModelSelection.REPORT)) {
+            report.store(out, "FP32 vs INT8 evaluation written by ModelGate");
+        }
+        System.out.println("Report written to " + ModelSelection.REPORT);
+    }
+
+    private static void evaluate(InferenceSession inference, long[] shape, int label, Result result) throws Exception {
+        long start = System.nanoTime();
+        float[][] output = inference.run(shape);
+        result.latency.record(System.nanoTime() - start);
+        result.matrix.record(label, GarbageClassifier.argMax(output[0]));
+    }
+
+    private static void print(Result r) {
+        System.out.printf(Locale.US, "%n%s: top-1 %.2f%%  p50 %.2f ms  p99 %.2f ms%n", r.path,
+                r.matrix.accuracy() * 100, r.latency.percentileMillis(50), r.latency.percentileMillis(99));
+        for (int c = 0; c < r.matrix.classCount(); c++) {
+            System.out.printf(Locale.US, "  %-10s %6.2f%%  (n=%d)%n", r.matrix.className(c),
+                    r.matrix.classAccuracy(c) * 100, r.matrix.support(c));
+        }
+    }
+
+    private static void store(Properties report, String prefix, Result r) {
+        report.setProperty(prefix + ".model", r.path);
+        report.setProperty(prefix + ".bytes", String.valueOf(new File(r.path).length()));
+        report.setProperty(prefix + ".top1", String.format(Locale.US, "%.4f", r.matrix.accuracy() * 100));
+        report.setProperty(prefix + ".p50Ms", String.format(Locale.US, "%.4f", r.latency.percentileMillis(50)));
+        report.setProperty(prefix + ".p99Ms", String.format(Locale.US, "%.4f", r.latency.percentileMillis(99)));
+        for (int c = 0; c < r.matrix.classCount(); c++) {
+            report.setProperty(prefix + ".class." + r.matrix.className(c),
+                    String.format(Locale.US, "%.4f", r.matrix.classAccuracy(c) * 100));
+        }
+    }
+}
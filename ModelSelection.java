@@ -0,0 +1,62 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Chooses between the FP32 model and its INT8 variant.
+ *
+ * ModelGate scores both models on the test split and writes model-gate.properties.
+ * The INT8 model is used only if that report exists, still describes the model files
+ * on disk, and its top-1 accuracy is no more than marginPct points below FP32.
+ * Anything else falls back to FP32.
+ */
+public class ModelSelection {
+
+    static final Path REPORT = Paths.get("model-gate.properties");
+    static final double DEFAULT_MARGIN = 1.0;
+
+    private ModelSelection() {
+    }
+
+    public static String choose(String fp32Path, String int8Path, double marginPct) {
+        if (!new File(int8Path).isFile() || !Files.exists(REPORT)) return fp32Path;
+
+        Properties report = new Properties();
+        try (Reader in = Files.newBufferedReader(REPORT)) {
+            report.load(in);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return fp32Path;
+        }
+
+        // A report for other model files says nothing about these ones
+        if (!matches(report, "fp32", fp32Path) || !matches(report, "int8", int8Path)) {
+            System.out.println("⚠️ " + REPORT + " is out of date; run ModelGate again. Using " + fp32Path);
+            return fp32Path;
+        }
+
+        double fp32Top1;
+        double int8Top1;
+        try {
+            fp32Top1 = Double.parseDouble(report.getProperty("fp32.top1"));
+            int8Top1 = Double.parseDouble(report.getProperty("int8.top1"));
+        } catch (NullPointerException | NumberFormatException e) {
+            System.out.println("⚠️ " + REPORT + " has no valid top-1 accuracies; run ModelGate again. Using " + fp32Path);
+            return fp32Path;
+        }
+        return withinMargin(fp32Top1, int8Top1, marginPct) ? int8Path : fp32Path;
+    }
+
+    /** Accuracies in percent. */
+    static boolean withinMargin(double fp32Top1, double int8Top1, double marginPct) {
+        return int8Top1 >= fp32Top1 - marginPct;
+    }
+
+    private static boolean matches(Properties report, String prefix, String path) {
+        return String.valueOf(new File(path).length()).equals(report.getProperty(prefix + ".bytes"));
+    }
+}
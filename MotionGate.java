@@ -0,0 +1,111 @@
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.video.BackgroundSubtractorMOG2;
+import org.opencv.video.Video;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides per frame whether the scene changed enough to be worth classifying.
+ *
+ * Each frame is shrunk to a small grayscale image and fed to a MOG2 background
+ * subtractor; the frame passes when at least thresholdPercent of its pixels are
+ * foreground. One more frame passes once motion stops, so the label reflects the
+ * scene after it settles rather than mid-movement, and refreshFrames forces a pass
+ * after that many gated frames in a row (0 disables it). Callers reuse their last
+ * result for gated frames. Not thread-safe: call from one thread.
+ */
+public class MotionGate {
+
+    private static final int HISTORY = 500;
+    private static final double VAR_THRESHOLD = 16;
+
+    private final BackgroundSubtractorMOG2 subtractor =
+            Video.createBackgroundSubtractorMOG2(HISTORY, VAR_THRESHOLD, false);
+    private final int gateWidth;
+    private final double thresholdFraction;
+    private final int refreshFrames;
+    private final Mat small = new Mat();
+    private final Mat gray = new Mat();
+    private final Mat mask = new Mat();
+
+    private boolean first = true;
+    private boolean settling;
+    private int gatedInARow;
+    private volatile double lastChangedPercent;
+
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong gated = new AtomicLong();
+
+    public MotionGate(int gateWidth, double thresholdPercent, int refreshFrames) {
+        this.gateWidth = gateWidth;
+        this.thresholdFraction = thresholdPercent / 100.0;
+        this.refreshFrames = refreshFrames;
+    }
+
+    /** True if frame should go through the model, false if the last result still holds. */
+    public boolean shouldInfer(Mat frame) {
+        int height = Math.max(1, (int) Math.round((double) frame.rows() * gateWidth / frame.cols()));
+        Imgproc.resize(frame, small, new Size(gateWidth, height), 0, 0, Imgproc.INTER_AREA);
+        if (small.channels() == 1) small.copyTo(gray);
+        else Imgproc.cvtColor(small, gray, Imgproc.COLOR_BGR2GRAY);
+        subtractor.apply(gray, mask);
+
+        int changed = Core.countNonZero(mask);
+        lastChangedPercent = 100.0 * changed / mask.total();
+        boolean moving = changed >= thresholdFraction * mask.total();
+
+        boolean infer;
+        if (first || moving) {
+            infer = true;
+            settling = !first;
+        } else if (settling || (refreshFrames > 0 && gatedInARow >= refreshFrames)) {
+            infer = true;
+            settling = false;
+        } else {
+            infer = false;
+        }
+        first = false;
+
+        if (infer) {
+            gatedInARow = 0;
+            passed.incrementAndGet();
+        } else {
+            gatedInARow++;
+            gated.incrementAndGet();
+        }
+        return infer;
+    }
+
+    public long getInferredFrames() {
+        return passed.get();
+    }
+
+    public long getGatedFrames() {
+        return gated.get();
+    }
+
+    /** Share of frames that skipped the model, 0-100. */
+    public double getSkippedPercent() {
+        long total = passed.get() + gated.get();
+        return total == 0 ? 0 : 100.0 * gated.get() / total;
+    }
+
+    /** Foreground share of the most recent frame, 0-100. */
+    public double getLastChangedPercent() {
+        return lastChangedPercent;
+    }
+
+    public String stats() {
+        return String.format("motion gate: inferred=%d gated=%d (%.1f%% of frames skipped, last change %.2f%%)",
+                getInferredFrames(), getGatedFrames(), getSkippedPercent(), lastChangedPercent);
+    }
+
+    public void release() {
+        small.release();
+        gray.release();
+        mask.release();
+    }
+}
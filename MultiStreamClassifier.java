@@ -0,0 +1,262 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoCapture;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classifies several camera or video-file streams with one shared session.
+ *
+ * Every stream has its own capture thread that keeps only its newest resized frame.
+ * A single scheduler thread collects at most one frame per stream per batch, starting
+ * from the stream after the one it started with last time, so no camera can crowd out
+ * the others when there are more streams than batch slots. Each batch is one
+ * [N,3,224,224] run. Streams can be added and removed while it is running.
+ * Resized frames are drawn from one MatPool shared by all streams and returned after
+ * their batch, so steady-state capture allocates no native buffers.
+ */
+public class MultiStreamClassifier {
+
+    private static final long POLL_MS = 100;
+    // A camera that fails this many reads in a row (about 25 s with the backoff) is treated as gone
+    private static final int MAX_READ_FAILURES = 30;
+    private static final long MAX_BACKOFF_MS = 1000;
+
+    private static final class Frame {
+        final Mat image;
+        final long captured = System.nanoTime();
+
+        Frame(Mat image) {
+            this.image = image;
+        }
+    }
+
+    /** One camera or video file and its counters. */
+    public final class Stream {
+        final int id;
+        final String source;
+        final VideoCapture cap;
+        final DropOldestRing<Frame> latest = new DropOldestRing<>(1);
+        final LatencyStats latency = new LatencyStats(10_000);
+        final AtomicLong captured = new AtomicLong();
+        final AtomicLong classified = new AtomicLong();
+        final Thread thread;
+        volatile boolean open = true;
+        volatile String label = "";
+        long statsCount;
+        long statsNanos = System.nanoTime();
+
+        Stream(int id, String source, VideoCapture cap) {
+            this.id = id;
+            this.source = source;
+            this.cap = cap;
+            this.thread = new Thread(this::captureLoop, "stream-" + id);
+            thread.setDaemon(true);
+        }
+
+        private void captureLoop() {
+            Size inputSize = new Size(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE);
+            Mat frame = new Mat();
+            int failures = 0;
+            while (open && running) {
+                if (!cap.read(frame) || frame.empty()) {
+                    // A video file has ended; a camera may just have hiccuped, or been unplugged
+                    if (!isDevice(source) || ++failures >= MAX_READ_FAILURES) break;
+                    try {
+                        Thread.sleep(Math.min(10L << Math.min(failures, 7), MAX_BACKOFF_MS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    continue;
+                }
+                failures = 0;
+                captured.incrementAndGet();
+                Mat resized = pool.acquire(GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE, frame.type());
+                Imgproc.resize(frame, resized, inputSize);
+                Frame evicted = latest.offer(new Frame(resized));
+                if (evicted != null) pool.release(evicted.image);
+                framesReady.release();
+            }
+            frame.release();
+            open = false;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final InferenceSession inference;
+    private final TensorPreprocessor preprocessor = new TensorPreprocessor(GarbageClassifier.IMG_SIZE);
+    // Shared by all streams; idle frames beyond this per size are freed
+    private final MatPool pool = new MatPool(64);
+    private final int maxBatch;
+    private final List<Stream> streams = new CopyOnWriteArrayList<>();
+    private final Semaphore framesReady = new Semaphore(0);
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong images = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final Thread scheduler;
+    private int cursor;
+    private volatile boolean running;
+
+    public MultiStreamClassifier(OrtEnvironment env, OrtSession session, int maxBatch) {
+        if (maxBatch < 1) throw new IllegalArgumentException("maxBatch must be >= 1");
+        this.inference = new InferenceSession(env, session);
+        this.maxBatch = maxBatch;
+        this.scheduler = new Thread(this::scheduleLoop, "stream-scheduler");
+        scheduler.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        scheduler.start();
+    }
+
+    /**
+     * Open a source, either a camera index ("0") or a video file path, and start
+     * classifying it. Returns the stream, or null if the source could not be opened.
+     */
+    public Stream addStream(String source) {
+        VideoCapture cap = isDevice(source) ? new VideoCapture(Integer.parseInt(source)) : new VideoCapture(source);
+        if (!cap.isOpened()) {
+            cap.release();
+            return null;
+        }
+        Stream s = new Stream(nextId.getAndIncrement(), source, cap);
+        streams.add(s);
+        s.thread.start();
+        return s;
+    }
+
+    /** Stop and close a stream; returns false if no stream has that id. */
+    public boolean removeStream(int id) throws InterruptedException {
+        for (Stream s : streams) {
+            if (s.id != id) continue;
+            streams.remove(s);
+            close(s);
+            return true;
+        }
+        return false;
+    }
+
+    public List<Stream> getStreams() {
+        return new ArrayList<>(streams);
+    }
+
+    private void close(Stream s) throws InterruptedException {
+        s.open = false;
+        s.thread.join();
+        s.cap.release();
+        for (Frame f : s.latest.drain()) pool.release(f.image);
+    }
+
+    private static boolean isDevice(String source) {
+        return source.matches("\\d+");
+    }
+
+    private void scheduleLoop() {
+        List<Frame> frames = new ArrayList<>(maxBatch);
+        List<Stream> owners = new ArrayList<>(maxBatch);
+        try {
+            while (running) {
+                if (!framesReady.tryAcquire(POLL_MS, TimeUnit.MILLISECONDS)) continue;
+                framesReady.drainPermits();
+
+                // Round-robin: one frame per stream, starting after last batch's first stream
+                List<Stream> snapshot = getStreams();
+                int n = snapshot.size();
+                for (int i = 0; i < n && frames.size() < maxBatch; i++) {
+                    Stream s = snapshot.get((cursor + i) % n);
+                    Frame f = s.latest.poll(0, TimeUnit.MILLISECONDS);
+                    if (f == null) continue;
+                    frames.add(f);
+                    owners.add(s);
+                }
+                if (n > 0) cursor = (cursor + 1) % n;
+                if (frames.isEmpty()) continue;
+
+                runBatch(frames, owners);
+                for (Frame f : frames) pool.release(f.image);
+                frames.clear();
+                owners.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Frame f : frames) pool.release(f.image);
+    }
+
+    private void runBatch(List<Frame> frames, List<Stream> owners) {
+        int n = frames.size();
+        int imageElements = 3 * GarbageClassifier.IMG_SIZE * GarbageClassifier.IMG_SIZE;
+        long[] shape = {n, 3, GarbageClassifier.IMG_SIZE, GarbageClassifier.IMG_SIZE};
+        try {
+            FloatBuffer input = inference.input(shape);
+            for (int i = 0; i < n; i++) preprocessor.writeTensor(frames.get(i).image, input, i * imageElements);
+
+            float[][] output = inference.run(shape);
+            long now = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                Stream s = owners.get(i);
+                s.label = GarbageClassifier.formatLabel(output[i]);
+                s.latency.record(now - frames.get(i).captured);
+                s.classified.incrementAndGet();
+            }
+            batches.incrementAndGet();
+            images.addAndGet(n);
+        } catch (OrtException | RuntimeException e) {
+            // e.g. a frame of an unexpected type; skip the batch, keep the scheduler alive
+            failedBatches.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * One line per stream with its label, classified FPS since the previous call and
+     * capture-to-result latency, plus the average batch size.
+     */
+    public synchronized String stats() {
+        StringBuilder sb = new StringBuilder();
+        long now = System.nanoTime();
+        for (Stream s : streams) {
+            long count = s.classified.get();
+            double fps = (count - s.statsCount) / ((now - s.statsNanos) / 1e9);
+            s.statsCount = count;
+            s.statsNanos = now;
+            sb.append(String.format("[%d] %-20s %-22s %6.1f fps  captured=%d  p50=%.1fms p95=%.1fms%s%n",
+                    s.id, s.source, s.label, fps, s.captured.get(), s.latency.percentileMillis(50),
+                    s.latency.percentileMillis(95), s.open ? "" : "  (ended)"));
+        }
+        long b = batches.get();
+        sb.append(String.format("%d streams, %d batches, %d failed, avg batch %.2f | %s",
+                streams.size(), b, failedBatches.get(), b == 0 ? 0 : (double) images.get() / b, pool.stats()));
+        return sb.toString();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        scheduler.join();
+        for (Stream s : streams) close(s);
+        streams.clear();
+        inference.close();
+        pool.close();
+    }
+}
@@ -14,6 +14,9 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Model runtime: "onnxruntime" or "opencv" (OpenCV DNN from the bundled SDK)
+        buildConfigField("String", "INFERENCE_BACKEND", "\"onnxruntime\"")
     }
 
     buildTypes {
@@ -30,9 +33,18 @@ android {
         targetCompatibility = JavaVersion.VERSION_11
     }
 
+    buildFeatures {
+        buildConfig = true
+    }
+
     aaptOptions {
         noCompress("onnx")
     }
+
+    // Local tests run classes that log; android.util.Log returns defaults instead of throwing
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
@@ -41,8 +53,9 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    implementation(libs.recyclerview)
     implementation(project(":sdk"))
-    implementation("com.microsoft.onnxruntime:onnxruntime-android:1.17.0")
+    implementation(libs.onnxruntime.android)
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
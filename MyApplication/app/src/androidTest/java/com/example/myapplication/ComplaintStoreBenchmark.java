@@ -0,0 +1,136 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * ComplaintStoreBenchmark grows a throwaway complaint database and, at each size, times the
+ * queries the screens run next to reading the same rows back from a complaints.txt-style file.
+ * Indexed queries should stay flat as the row count grows while the file read grows linearly.
+ * Uses its own database and file, which are deleted afterwards. The report goes to logcat
+ * under ComplaintStoreBench.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ComplaintStoreBenchmark {
+
+    private static final String TAG = "ComplaintStoreBench";
+    private static final String DB_NAME = "complaints-benchmark.db";
+    private static final String FILE_NAME = "complaints-benchmark.txt";
+    private static final int PAGE = 50;
+    private static final int[] ROW_COUNTS = {1_000, 5_000, 20_000, 50_000};
+    private static final int REPEATS = 21;
+
+    @Test
+    public void queriesAgainstFileRead() throws IOException {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        String report = run(context, ROW_COUNTS, REPEATS);
+        assertEquals(ROW_COUNTS.length + 1, report.split("\n").length);
+    }
+
+    /** Median of repeats per query at each row count, one line per size */
+    private static String run(Context context, int[] rowCounts, int repeats) throws IOException {
+        context.deleteDatabase(DB_NAME);
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        file.delete();
+        Random random = new Random(42);
+        StringBuilder report = new StringBuilder(String.format(Locale.US,
+                "%8s %10s %10s %10s %10s %10s%n", "rows", "recent", "byStatus", "count", "stats", "file read"));
+
+        ComplaintStore store = new ComplaintStore(context, DB_NAME);
+        try {
+            int rows = 0;
+            long time = System.currentTimeMillis();
+            for (int target : rowCounts) {
+                fill(store.getWritableDatabase(), file, rows, target, time, random);
+                rows = target;
+                report.append(String.format(Locale.US, "%8d %8.2fms %8.2fms %8.2fms %8.2fms %8.2fms%n", rows,
+                        median(repeats, () -> store.recent(PAGE, 0)),
+                        median(repeats, () -> store.byStatus(ComplaintStore.STATUS_OPEN, PAGE, 0)),
+                        median(repeats, store::count),
+                        median(repeats, () -> store.stats(7)),
+                        median(repeats, () -> readLines(file))));
+            }
+        } finally {
+            store.close();
+            context.deleteDatabase(DB_NAME);
+            file.delete();
+        }
+        Log.i(TAG, "\n" + report);
+        return report.toString();
+    }
+
+    private static void fill(SQLiteDatabase db, File file, int from, int to, long time, Random random)
+            throws IOException {
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT INTO complaints (text, lat, lon, created_at, status) VALUES (?, ?, ?, ?, ?)");
+        db.beginTransaction();
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(file, true))) {
+            for (int i = from; i < to; i++) {
+                String text = "Overflowing bin near block " + random.nextInt(40);
+                double lat = 12.9 + random.nextDouble() / 100;
+                double lon = 77.5 + random.nextDouble() / 100;
+                insert.bindString(1, text);
+                insert.bindDouble(2, lat);
+                insert.bindDouble(3, lon);
+                insert.bindLong(4, time + i);
+                // About one in five still open, as on a station that keeps up
+                insert.bindString(5, random.nextInt(5) == 0 ? ComplaintStore.STATUS_OPEN : ComplaintStore.STATUS_RESOLVED);
+                insert.executeInsert();
+                out.write(text + " | Location: " + lat + ", " + lon + "\n");
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+    }
+
+    private static List<String> readLines(File file) {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            for (String line; (line = br.readLine()) != null; ) lines.add(line);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return lines;
+    }
+
+    private interface Query {
+        Object run();
+    }
+
+    private static double median(int repeats, Query query) {
+        query.run();
+        long[] nanos = new long[repeats];
+        for (int i = 0; i < repeats; i++) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            query.run();
+            nanos[i] = SystemClock.elapsedRealtimeNanos() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[repeats / 2] / 1e6;
+    }
+}
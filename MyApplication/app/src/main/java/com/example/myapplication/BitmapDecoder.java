@@ -0,0 +1,205 @@
+package com.example.myapplication;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Debug;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * BitmapDecoder loads gallery images at roughly the size they are shown and classified at.
+ * The image bounds are read first and the largest power-of-two inSampleSize is chosen that
+ * keeps the short side at or above targetSize, so a 48 MP photo decodes to a few hundred
+ * pixels instead of a 190 MB bitmap. EXIF orientation is applied after decoding.
+ * Decodes write into a bitmap handed back through reuse() when it is large enough (inBitmap).
+ * The peak heap growth of each decode (Java plus native, where bitmap pixels live) is kept
+ * in shared preferences for the Dashboard.
+ */
+public class BitmapDecoder {
+
+    private static final String TAG = "BitmapDecoder";
+    private static final String PREFS = "image_decode";
+
+    private final ContentResolver resolver;
+    private final SharedPreferences prefs;
+    private final int targetSize;
+    private final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private Bitmap reusable;
+    private long baseline;
+    private long peak;
+
+    public BitmapDecoder(Context context, int targetSize) {
+        this.resolver = context.getContentResolver();
+        this.prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.targetSize = targetSize;
+    }
+
+    /** Decode the image at uri, downsampled and upright. Call off the main thread. */
+    public Bitmap decode(Uri uri) throws IOException {
+        baseline = heapInUse();
+        peak = baseline;
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream is = resolver.openInputStream(uri)) {
+            BitmapFactory.decodeStream(is, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+        int sourceWidth = options.outWidth;
+        int sourceHeight = options.outHeight;
+
+        int orientation;
+        try (InputStream is = resolver.openInputStream(uri)) {
+            orientation = new ExifInterface(is).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize(sourceWidth, sourceHeight, targetSize);
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        options.inMutable = true;
+        options.inBitmap = takeReusable(options);
+        boolean reused = options.inBitmap != null;
+        Bitmap bitmap = decodeStream(uri, options);
+        if (bitmap == null && reused) {
+            // The pooled bitmap did not fit after all; decode into a new one
+            options.inBitmap = null;
+            reused = false;
+            bitmap = decodeStream(uri, options);
+        }
+        if (bitmap == null) return null;
+        samplePeak();
+
+        Bitmap upright = applyOrientation(bitmap, orientation);
+        if (upright != bitmap) reuse(bitmap);
+        samplePeak();
+
+        record(sourceWidth, sourceHeight, upright, options.inSampleSize, reused);
+        return upright;
+    }
+
+    private Bitmap decodeStream(Uri uri, BitmapFactory.Options options) throws IOException {
+        try (InputStream is = resolver.openInputStream(uri)) {
+            return BitmapFactory.decodeStream(is, null, options);
+        } catch (IllegalArgumentException e) {
+            // Thrown when inBitmap cannot hold the decoded image
+            if (options.inBitmap == null) throw e;
+            return null;
+        }
+    }
+
+    /** Largest power of two that keeps the short side of the decoded image >= target */
+    static int sampleSize(int width, int height, int target) {
+        int shortSide = Math.min(width, height);
+        int sample = 1;
+        while (shortSide / (sample * 2) >= target) sample *= 2;
+        return sample;
+    }
+
+    /**
+     * Hand back a bitmap this decoder returned once it is no longer displayed,
+     * so the next decode can write into it instead of allocating.
+     */
+    public synchronized void reuse(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        if (reusable == null || bitmap.getAllocationByteCount() > reusable.getAllocationByteCount()) {
+            reusable = bitmap;
+        }
+    }
+
+    private synchronized Bitmap takeReusable(BitmapFactory.Options options) {
+        if (reusable == null) return null;
+        int width = (options.outWidth + options.inSampleSize - 1) / options.inSampleSize;
+        int height = (options.outHeight + options.inSampleSize - 1) / options.inSampleSize;
+        if ((long) width * height * 4 > reusable.getAllocationByteCount()) return null;
+        Bitmap bitmap = reusable;
+        reusable = null;
+        return bitmap;
+    }
+
+    private Bitmap applyOrientation(Bitmap bitmap, int orientation) {
+        Matrix matrix = new Matrix();
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.setScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.setRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.setRotate(180);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.setRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.setRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.setRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.setRotate(-90);
+                break;
+            default:
+                return bitmap;
+        }
+
+        RectF bounds = new RectF(0, 0, bitmap.getWidth(), bitmap.getHeight());
+        matrix.mapRect(bounds);
+        matrix.postTranslate(-bounds.left, -bounds.top);
+        Bitmap upright = Bitmap.createBitmap(Math.round(bounds.width()), Math.round(bounds.height()),
+                Bitmap.Config.ARGB_8888);
+        new Canvas(upright).drawBitmap(bitmap, matrix, paint);
+        return upright;
+    }
+
+    private static long heapInUse() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+
+    private void samplePeak() {
+        peak = Math.max(peak, heapInUse());
+    }
+
+    private void record(int sourceWidth, int sourceHeight, Bitmap bitmap, int sample, boolean reused) {
+        long peakBytes = Math.max(0, peak - baseline);
+        Log.i(TAG, String.format(Locale.US, "%dx%d -> %dx%d (1/%d, %s), peak heap +%d KB",
+                sourceWidth, sourceHeight, bitmap.getWidth(), bitmap.getHeight(), sample,
+                reused ? "reused bitmap" : "new bitmap", peakBytes / 1024));
+        prefs.edit()
+                .putString("last", String.format(Locale.US, "%dx%d -> %dx%d (1/%d)",
+                        sourceWidth, sourceHeight, bitmap.getWidth(), bitmap.getHeight(), sample))
+                .putLong("last_peak", peakBytes)
+                .putLong("max_peak", Math.max(peakBytes, prefs.getLong("max_peak", 0)))
+                .putLong("decodes", prefs.getLong("decodes", 0) + 1)
+                .putLong("reused", prefs.getLong("reused", 0) + (reused ? 1 : 0))
+                .apply();
+    }
+
+    /** One-line summary for the Dashboard, or null if no gallery image has been decoded */
+    public static String statsSummary(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        long decodes = prefs.getLong("decodes", 0);
+        if (decodes == 0) return null;
+        return String.format(Locale.US, "%s, peak +%.1f MB (max +%.1f MB), %d of %d into reused bitmaps",
+                prefs.getString("last", ""), prefs.getLong("last_peak", 0) / 1048576.0,
+                prefs.getLong("max_peak", 0) / 1048576.0, prefs.getLong("reused", 0), decodes);
+    }
+}
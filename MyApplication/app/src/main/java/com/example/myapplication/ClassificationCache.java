@@ -0,0 +1,151 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * ClassificationCache remembers predictions by a 64-bit difference hash (dHash) of the image.
+ * A lookup hits when a stored hash is within maxDistance bits of the query, so re-picked
+ * gallery photos and near-identical retakes skip preprocessing and inference.
+ * Entries are kept in LRU order up to capacity and written to a file in the app's files
+ * directory, tagged with the model they came from; a different model starts empty.
+ * Hit and miss counts are kept in shared preferences for the Dashboard.
+ */
+public class ClassificationCache {
+
+    private static final String FILE_NAME = "classification_cache.bin";
+    private static final String PREFS = "classification_cache";
+    private static final int VERSION = 1;
+
+    private final File file;
+    private final SharedPreferences prefs;
+    private final int maxDistance;
+    private final LinkedHashMap<Long, String> entries;
+    private String modelKey = "";
+
+    public ClassificationCache(Context context, int capacity, int maxDistance) {
+        this.file = new File(context.getFilesDir(), FILE_NAME);
+        this.prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.maxDistance = maxDistance;
+        this.entries = new LinkedHashMap<Long, String>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * dHash of the bitmap: shrink to 9x8 grayscale and set one bit per pixel that is
+     * brighter than its right-hand neighbour.
+     */
+    public static long dHash(Bitmap bitmap) {
+        Bitmap small = Bitmap.createScaledBitmap(bitmap, 9, 8, true);
+        int[] pixels = new int[9 * 8];
+        small.getPixels(pixels, 0, 9, 0, 0, 9, 8);
+        if (small != bitmap) small.recycle();
+
+        long hash = 0;
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                hash <<= 1;
+                if (luma(pixels[y * 9 + x]) > luma(pixels[y * 9 + x + 1])) hash |= 1;
+            }
+        }
+        return hash;
+    }
+
+    private static int luma(int argb) {
+        return (Color.red(argb) * 299 + Color.green(argb) * 587 + Color.blue(argb) * 114) / 1000;
+    }
+
+    /** Load the saved entries if they were produced by the same model. Call off the main thread. */
+    public synchronized void open(String modelKey) {
+        this.modelKey = modelKey;
+        entries.clear();
+        if (!file.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION || !in.readUTF().equals(modelKey)) return;
+            int count = in.readInt();
+            // Stored eldest first, so re-inserting restores the LRU order
+            for (int i = 0; i < count; i++) entries.put(in.readLong(), in.readUTF());
+        } catch (IOException e) {
+            e.printStackTrace();
+            entries.clear();
+        }
+    }
+
+    /** Cached label for an image with this hash, or null on a miss */
+    public synchronized String get(long hash) {
+        String label = entries.get(hash);
+        if (label == null) {
+            Long nearest = null;
+            int best = maxDistance + 1;
+            for (Long key : entries.keySet()) {
+                int distance = Long.bitCount(key ^ hash);
+                if (distance < best) {
+                    best = distance;
+                    nearest = key;
+                }
+            }
+            // get() moves the matched entry to the most recently used end
+            if (nearest != null) label = entries.get(nearest);
+        }
+
+        String counter = label != null ? "hits" : "misses";
+        prefs.edit().putLong(counter, prefs.getLong(counter, 0) + 1).apply();
+        return label;
+    }
+
+    public synchronized void put(long hash, String label) {
+        entries.put(hash, label);
+        save();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // Write to a temp file and rename so a crash never leaves a half-written cache
+    private void save() {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(modelKey);
+            out.writeInt(entries.size());
+            for (Map.Entry<Long, String> e : entries.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeUTF(e.getValue());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (!tmp.renameTo(file)) tmp.delete();
+    }
+
+    /** "N hits / M misses (x% hit rate)", or null before the first lookup */
+    public static String statsSummary(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        long hits = prefs.getLong("hits", 0);
+        long misses = prefs.getLong("misses", 0);
+        if (hits + misses == 0) return null;
+        return String.format(Locale.US, "%d hits / %d misses (%.1f%% hit rate)",
+                hits, misses, 100.0 * hits / (hits + misses));
+    }
+}
@@ -1,67 +1,85 @@
 package com.example.myapplication;
 
+import android.content.ContentValues;
 import android.content.Context;
 import android.widget.Toast;
 
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.io.BufferedReader;
 import java.io.FileReader;
 
 /**
  * ComplaintManager handles saving and retrieving user complaints and image info.
- * Data is stored in private internal files.
+ * Complaints live in the ComplaintStore database; image info is stored in a private internal file.
+ * Saves go through the shared JournalWriter, so they return at once and are written in groups
+ * on its background thread; call flush() before shutdown to wait for them.
  */
 public class ComplainActivity {
 
-    private static final String FILE_COMPLAINTS = "complaints.txt";
     private static final String FILE_IMAGES = "images.txt";
 
-    private Context context;
+    // Application context: the journal holds sinks and callbacks past the screen that queued them
+    private final Context context;
+    private final ComplaintStore store;
+    private final JournalWriter journal = JournalWriter.get();
+    // One transaction per group of complaints
+    private final JournalWriter.Sink<ContentValues> complaintSink;
+    // One open, write and sync of images.txt per group of lines
+    private final JournalWriter.Sink<String> imageSink;
+    // Queued like a save, so complaints submitted before the clear cannot be written after it
+    private final JournalWriter.Sink<Void> clearSink;
 
     public ComplainActivity(Context context) {
-        this.context = context;
+        this.context = context.getApplicationContext();
+        this.store = ComplaintStore.getInstance(context);
+        this.complaintSink = store::insertAll;
+        this.imageSink = this::appendImageInfo;
+        this.clearSink = records -> store.clear();
     }
 
-    /** Save a complaint to the internal file */
-    public void saveComplaint(String complaint) {
-        try (FileOutputStream fos = context.openFileOutput(FILE_COMPLAINTS, Context.MODE_APPEND)) {
-            fos.write((complaint + "\n").getBytes());
-            Toast.makeText(context, "Complaint saved!", Toast.LENGTH_SHORT).show();
-        } catch (IOException e) {
-            e.printStackTrace();
-            Toast.makeText(context, "Failed to save complaint", Toast.LENGTH_SHORT).show();
-        }
+    /** Queue a complaint; lat/lon, imageRef and callback may be null. callback runs on the main thread. */
+    public void saveComplaint(String text, Double lat, Double lon, String imageRef, JournalWriter.Callback callback) {
+        journal.append(complaintSink, ComplaintStore.newComplaint(text, lat, lon, imageRef), callback);
     }
 
-    /** Save image info (like prediction) to internal file */
+    /** Queue image info (like prediction) for the internal file; safe to call from a background thread */
     public void saveImageInfo(String info) {
+        journal.append(imageSink, info, error -> {
+            if (error != null) Toast.makeText(context, "Failed to save image info", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    private void appendImageInfo(List<String> lines) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) sb.append(line).append('\n');
         try (FileOutputStream fos = context.openFileOutput(FILE_IMAGES, Context.MODE_APPEND)) {
-            fos.write((info + "\n").getBytes());
-        } catch (IOException e) {
-            e.printStackTrace();
-            Toast.makeText(context, "Failed to save image info", Toast.LENGTH_SHORT).show();
+            fos.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            fos.getFD().sync();
         }
     }
 
-    /** Retrieve all complaints from the internal file */
-    public List<String> getAllComplaints() {
-        List<String> complaints = new ArrayList<>();
-        File file = new File(context.getFilesDir(), FILE_COMPLAINTS);
-        if (!file.exists()) return complaints;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                complaints.add(line);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Wait up to timeoutMs for every complaint and image info queued so far to be written.
+     * Returns false if some may still be pending; they are still written in the background.
+     */
+    public boolean flush(long timeoutMs) {
+        try {
+            return journal.flush(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        return complaints;
+    }
+
+    /** Maintained complaint counters, with per-day counts for the last days days */
+    public ComplaintStore.Stats getStats(int days) {
+        return store.stats(days);
     }
 
     /** Retrieve all saved image info */
@@ -81,15 +99,10 @@ public class ComplainActivity {
         return images;
     }
 
-    /** Clear all complaints */
+    /** Clear all complaints, including any still queued for writing */
     public void clearComplaints() {
-        File file = new File(context.getFilesDir(), FILE_COMPLAINTS);
-        if (file.exists()) {
-            boolean deleted = file.delete();
-            if (deleted) {
-                Toast.makeText(context, "All complaints cleared", Toast.LENGTH_SHORT).show();
-            }
-        }
+        journal.append(clearSink, null, error -> Toast.makeText(context,
+                error == null ? "All complaints cleared" : "Failed to clear complaints", Toast.LENGTH_SHORT).show());
     }
 
     /** Clear all saved image info */
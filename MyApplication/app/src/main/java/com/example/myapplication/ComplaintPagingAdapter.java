@@ -0,0 +1,147 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * ComplaintPagingAdapter shows the complaint history newest first, PAGE_SIZE rows at a time.
+ * Pages are read from the ComplaintStore on a background thread. The list grows when binding
+ * comes within PREFETCH_DISTANCE rows of its end. At most MAX_PAGES pages are held; the one
+ * farthest from the row being bound is dropped and read again if the user scrolls back to it.
+ * Every page after the first is read by seeking past the last row of the page before it, so
+ * only that row's key is kept for pages that are no longer held.
+ */
+public class ComplaintPagingAdapter extends RecyclerView.Adapter<ComplaintPagingAdapter.Holder> {
+
+    static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_DISTANCE = 15;
+    private static final int MAX_PAGES = 4;
+
+    static class Holder extends RecyclerView.ViewHolder {
+        final TextView text;
+
+        Holder(View itemView) {
+            super(itemView);
+            text = itemView.findViewById(android.R.id.text1);
+        }
+    }
+
+    private final ComplaintStore store;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Everything below is only touched on the main thread
+    private final SparseArray<List<ComplaintStore.Complaint>> pages = new SparseArray<>();
+    // (created_at, _id) of the last row of each page read so far
+    private final List<long[]> pageEnds = new ArrayList<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private int itemCount;
+    private int lastBoundPage;
+    private boolean endReached;
+    private boolean closed;
+
+    public ComplaintPagingAdapter(Context context) {
+        this.store = ComplaintStore.getInstance(context);
+    }
+
+    /** Read the first page */
+    public void start() {
+        load(0);
+    }
+
+    /** Stop reading pages; call from onDestroy */
+    public void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(android.R.layout.simple_list_item_1, parent, false);
+        return new Holder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(Holder holder, int position) {
+        int page = position / PAGE_SIZE;
+        lastBoundPage = page;
+        List<ComplaintStore.Complaint> rows = pages.get(page);
+        if (rows == null) {
+            holder.text.setText("Loading…");
+            load(page);
+        } else {
+            int row = position % PAGE_SIZE;
+            // A re-read page can come back short if complaints were cleared meanwhile
+            holder.text.setText(row < rows.size() ? rows.get(row).toString() : "");
+        }
+        if (!endReached && position >= itemCount - PREFETCH_DISTANCE) load(pageEnds.size());
+    }
+
+    @Override
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    private void load(int page) {
+        // A page is read only once the key of the page before it is known
+        if (closed || page > pageEnds.size() || pages.get(page) != null || !loading.add(page)) return;
+        long[] after = page == 0 ? null : pageEnds.get(page - 1);
+        executor.execute(() -> {
+            List<ComplaintStore.Complaint> rows = null;
+            try {
+                rows = after == null ? store.recent(PAGE_SIZE, 0)
+                        : store.recentAfter(after[0], after[1], PAGE_SIZE);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            List<ComplaintStore.Complaint> result = rows;
+            mainHandler.post(() -> onLoaded(page, result));
+        });
+    }
+
+    private void onLoaded(int page, List<ComplaintStore.Complaint> rows) {
+        loading.remove(page);
+        if (closed || rows == null) return;
+        pages.put(page, rows);
+        if (page == pageEnds.size()) {
+            if (!rows.isEmpty()) {
+                ComplaintStore.Complaint last = rows.get(rows.size() - 1);
+                pageEnds.add(new long[]{last.createdAt, last.id});
+            }
+            if (rows.size() < PAGE_SIZE) endReached = true;
+            int start = itemCount;
+            itemCount += rows.size();
+            notifyItemRangeInserted(start, rows.size());
+        } else {
+            notifyItemRangeChanged(page * PAGE_SIZE, Math.min(PAGE_SIZE, itemCount - page * PAGE_SIZE));
+        }
+        evict();
+    }
+
+    private void evict() {
+        while (pages.size() > MAX_PAGES) {
+            int farthest = 0;
+            for (int i = 1; i < pages.size(); i++) {
+                if (Math.abs(pages.keyAt(i) - lastBoundPage) > Math.abs(pages.keyAt(farthest) - lastBoundPage)) {
+                    farthest = i;
+                }
+            }
+            pages.removeAt(farthest);
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.myapplication;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ComplaintStore keeps complaints in an on-device SQLite database with typed columns.
+ * created_at and (status, created_at) are indexed, so the newest-first pages and per-status
+ * lists the screens ask for are index range scans whose cost does not grow with the table.
+ * The first time the database is created, complaints.txt is imported into it and renamed
+ * to complaints.txt.migrated.
+ *
+ * Totals, per-status and per-day counts and the last submission time live in a
+ * complaint_stats table that triggers update in the same transaction as every insert,
+ * update and delete, so the Dashboard reads them without touching the complaints and they
+ * cannot drift from the rows after a crash. If they are found stale on open (they disagree
+ * with the newest row) they are rebuilt from the table.
+ */
+public class ComplaintStore extends SQLiteOpenHelper {
+
+    private static final String TAG = "ComplaintStore";
+    private static final String DB_NAME = "complaints.db";
+    private static final int DB_VERSION = 1;
+    private static final String LEGACY_FILE = "complaints.txt";
+    private static final String LOCATION_SEPARATOR = " | Location: ";
+
+    public static final String STATUS_OPEN = "open";
+    public static final String STATUS_RESOLVED = "resolved";
+
+    private static final String DAY_OF_NEW = "'day:' || date(NEW.created_at / 1000, 'unixepoch', 'localtime')";
+    private static final String DAY_OF_OLD = "'day:' || date(OLD.created_at / 1000, 'unixepoch', 'localtime')";
+    // Index lookup on created_at, so removing the newest row stays cheap
+    private static final String SET_LAST_CREATED_AT =
+            "UPDATE complaint_stats SET value = COALESCE((SELECT MAX(created_at) FROM complaints), 0) "
+                    + "WHERE name = 'last_created_at'; ";
+
+    private static final String[] COLUMNS = {"_id", "text", "lat", "lon", "created_at", "status", "image_ref"};
+
+    /** One stored complaint; lat and lon are null when no location was available */
+    public static class Complaint {
+        public final long id;
+        public final String text;
+        public final Double lat;
+        public final Double lon;
+        public final long createdAt;
+        public final String status;
+        public final String imageRef;
+
+        Complaint(long id, String text, Double lat, Double lon, long createdAt, String status, String imageRef) {
+            this.id = id;
+            this.text = text;
+            this.lat = lat;
+            this.lon = lon;
+            this.createdAt = createdAt;
+            this.status = status;
+            this.imageRef = imageRef;
+        }
+
+        /** Same line format complaints.txt used */
+        @Override
+        public String toString() {
+            return text + LOCATION_SEPARATOR + (lat != null && lon != null ? lat + ", " + lon : "Not available");
+        }
+    }
+
+    /** Maintained counters; byDay is keyed by local date (yyyy-MM-dd), oldest first */
+    public static class Stats {
+        public final long total;
+        public final Map<String, Long> byStatus;
+        public final Map<String, Long> byDay;
+        public final long lastCreatedAt;
+
+        Stats(long total, Map<String, Long> byStatus, Map<String, Long> byDay, long lastCreatedAt) {
+            this.total = total;
+            this.byStatus = byStatus;
+            this.byDay = byDay;
+            this.lastCreatedAt = lastCreatedAt;
+        }
+
+        public long status(String status) {
+            Long n = byStatus.get(status);
+            return n == null ? 0 : n;
+        }
+
+        public long day(String day) {
+            Long n = byDay.get(day);
+            return n == null ? 0 : n;
+        }
+    }
+
+    private static ComplaintStore instance;
+
+    private final File legacyFile;
+    private boolean migrated;
+
+    /** The app-wide store; SQLite connections are shared, not opened per screen */
+    public static synchronized ComplaintStore getInstance(Context context) {
+        if (instance == null) instance = new ComplaintStore(context.getApplicationContext(), DB_NAME);
+        return instance;
+    }
+
+    /** A store in its own database file, e.g. for benchmarking */
+    ComplaintStore(Context context, String dbName) {
+        super(context, dbName, null, DB_VERSION);
+        this.legacyFile = DB_NAME.equals(dbName) ? new File(context.getFilesDir(), LEGACY_FILE) : null;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE complaints ("
+                + "_id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "text TEXT NOT NULL, "
+                + "lat REAL, "
+                + "lon REAL, "
+                + "created_at INTEGER NOT NULL, "
+                + "status TEXT NOT NULL DEFAULT '" + STATUS_OPEN + "', "
+                + "image_ref TEXT)");
+        db.execSQL("CREATE INDEX idx_complaints_created_at ON complaints(created_at)");
+        db.execSQL("CREATE INDEX idx_complaints_status_created_at ON complaints(status, created_at)");
+        createStats(db);
+        importLegacyFile(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only version 1 has shipped
+    }
+
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        // Only rename once the import has been committed with the new database
+        if (migrated && legacyFile.renameTo(new File(legacyFile.getPath() + ".migrated"))) migrated = false;
+        if (!db.isReadOnly() && statsStale(db)) {
+            Log.w(TAG, "Complaint stats are stale, rebuilding");
+            db.beginTransaction();
+            try {
+                rebuildStats(db);
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+        }
+    }
+
+    private static void createStats(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE complaint_stats (name TEXT PRIMARY KEY, value INTEGER NOT NULL) WITHOUT ROWID");
+        db.execSQL("CREATE TRIGGER complaints_stats_insert AFTER INSERT ON complaints BEGIN "
+                + add("'total'", "1")
+                + add("'status:' || NEW.status", "1")
+                + add(DAY_OF_NEW, "1")
+                + "INSERT INTO complaint_stats VALUES ('last_created_at', NEW.created_at) "
+                + "ON CONFLICT(name) DO UPDATE SET value = max(value, excluded.value); "
+                + "INSERT INTO complaint_stats VALUES ('max_id', NEW._id) "
+                + "ON CONFLICT(name) DO UPDATE SET value = max(value, excluded.value); "
+                + "END");
+        db.execSQL("CREATE TRIGGER complaints_stats_update AFTER UPDATE OF status, created_at ON complaints BEGIN "
+                + add("'status:' || OLD.status", "-1")
+                + add("'status:' || NEW.status", "1")
+                + add(DAY_OF_OLD, "-1")
+                + add(DAY_OF_NEW, "1")
+                + dropIfZero("'status:' || OLD.status")
+                + dropIfZero(DAY_OF_OLD)
+                + SET_LAST_CREATED_AT
+                + "END");
+        db.execSQL("CREATE TRIGGER complaints_stats_delete AFTER DELETE ON complaints BEGIN "
+                + add("'total'", "-1")
+                + add("'status:' || OLD.status", "-1")
+                + add(DAY_OF_OLD, "-1")
+                + dropIfZero("'status:' || OLD.status")
+                + dropIfZero(DAY_OF_OLD)
+                + SET_LAST_CREATED_AT
+                + "UPDATE complaint_stats SET value = COALESCE((SELECT MAX(_id) FROM complaints), 0) "
+                + "WHERE name = 'max_id'; "
+                + "END");
+    }
+
+    private static String add(String name, String delta) {
+        return "INSERT INTO complaint_stats VALUES (" + name + ", " + delta + ") "
+                + "ON CONFLICT(name) DO UPDATE SET value = value + excluded.value; ";
+    }
+
+    // Emptied status and day rows are removed, so the table only grows with days that have complaints
+    private static String dropIfZero(String name) {
+        return "DELETE FROM complaint_stats WHERE name = " + name + " AND value = 0; ";
+    }
+
+    // The insert and delete triggers keep max_id equal to the newest row, so any other value means
+    // rows were written while the counters were not being kept
+    private static boolean statsStale(SQLiteDatabase db) {
+        long maxId = DatabaseUtils.longForQuery(db, "SELECT COALESCE(MAX(_id), 0) FROM complaints", null);
+        long recorded = DatabaseUtils.longForQuery(db,
+                "SELECT COALESCE((SELECT value FROM complaint_stats WHERE name = 'max_id'), 0)", null);
+        long total = DatabaseUtils.longForQuery(db,
+                "SELECT COALESCE((SELECT value FROM complaint_stats WHERE name = 'total'), 0)", null);
+        return maxId != recorded || total < 0 || (maxId == 0) != (total == 0);
+    }
+
+    /** Recompute every counter from the complaints table; call inside a transaction */
+    private static void rebuildStats(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM complaint_stats");
+        db.execSQL("INSERT INTO complaint_stats SELECT 'total', COUNT(*) FROM complaints");
+        db.execSQL("INSERT INTO complaint_stats SELECT 'status:' || status, COUNT(*) FROM complaints GROUP BY status");
+        db.execSQL("INSERT INTO complaint_stats SELECT 'day:' || date(created_at / 1000, 'unixepoch', 'localtime'), "
+                + "COUNT(*) FROM complaints GROUP BY 1");
+        db.execSQL("INSERT INTO complaint_stats SELECT 'last_created_at', COALESCE(MAX(created_at), 0) FROM complaints");
+        db.execSQL("INSERT INTO complaint_stats SELECT 'max_id', COALESCE(MAX(_id), 0) FROM complaints");
+    }
+
+    /**
+     * The maintained counters with per-day counts for the last days days (today included).
+     * Reads only the stats table, so the cost does not depend on how many complaints exist.
+     */
+    public Stats stats(int days) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+        String firstDay = "day:" + format.format(new Date(System.currentTimeMillis() - (days - 1) * 86_400_000L));
+        long total = 0;
+        long lastCreatedAt = 0;
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        Map<String, Long> byDay = new TreeMap<>();
+        // Three primary-key lookups: the fixed keys, the status range and the recent days
+        try (Cursor c = getReadableDatabase().rawQuery(
+                "SELECT name, value FROM complaint_stats WHERE name IN ('total', 'last_created_at') "
+                        + "UNION ALL SELECT name, value FROM complaint_stats WHERE name >= 'status:' AND name < 'status;' "
+                        + "UNION ALL SELECT name, value FROM complaint_stats WHERE name >= ? AND name < 'day;'",
+                new String[]{firstDay})) {
+            while (c.moveToNext()) {
+                String name = c.getString(0);
+                long value = c.getLong(1);
+                if (name.equals("total")) total = value;
+                else if (name.equals("last_created_at")) lastCreatedAt = value;
+                else if (name.startsWith("status:") && value > 0) byStatus.put(name.substring(7), value);
+                else if (name.startsWith("day:") && value > 0) byDay.put(name.substring(4), value);
+            }
+        }
+        return new Stats(total, byStatus, byDay, lastCreatedAt);
+    }
+
+    // Runs inside onCreate's transaction, so a failed import leaves no half-filled database
+    private void importLegacyFile(SQLiteDatabase db) {
+        if (legacyFile == null || !legacyFile.exists()) return;
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new FileReader(legacyFile))) {
+            for (String line; (line = br.readLine()) != null; ) {
+                if (!line.trim().isEmpty()) lines.add(line);
+            }
+        } catch (IOException e) {
+            // Rolls back the create, so the import is tried again on the next open
+            throw new SQLException("Could not read " + LEGACY_FILE, e);
+        }
+
+        // The file kept no times; space the rows 1 ms apart ending at its last write, in file order
+        long last = legacyFile.lastModified();
+        SQLiteStatement insert = db.compileStatement(
+                "INSERT INTO complaints (text, lat, lon, created_at, status) VALUES (?, ?, ?, ?, ?)");
+        for (int i = 0; i < lines.size(); i++) {
+            bindLegacyLine(insert, lines.get(i));
+            insert.bindLong(4, last - (lines.size() - 1 - i));
+            insert.bindString(5, STATUS_OPEN);
+            insert.executeInsert();
+            insert.clearBindings();
+        }
+        insert.close();
+        migrated = true;
+        Log.i(TAG, "Imported " + lines.size() + " complaints from " + LEGACY_FILE);
+    }
+
+    // "text | Location: lat, lon" or "text | Location: Not available"
+    private static void bindLegacyLine(SQLiteStatement insert, String line) {
+        int sep = line.lastIndexOf(LOCATION_SEPARATOR);
+        insert.bindString(1, sep < 0 ? line : line.substring(0, sep));
+        if (sep < 0) return;
+        String[] latLon = line.substring(sep + LOCATION_SEPARATOR.length()).split(",");
+        if (latLon.length != 2) return;
+        try {
+            insert.bindDouble(2, Double.parseDouble(latLon[0].trim()));
+            insert.bindDouble(3, Double.parseDouble(latLon[1].trim()));
+        } catch (NumberFormatException e) {
+            // "Not available": leave the location null
+        }
+    }
+
+    /** Add a complaint; lat/lon may be null. Returns its id. */
+    public long insert(String text, Double lat, Double lon, String imageRef) {
+        return getWritableDatabase().insertOrThrow("complaints", null, newComplaint(text, lat, lon, imageRef));
+    }
+
+    /** Row values for a complaint submitted now, for insertAll */
+    public static ContentValues newComplaint(String text, Double lat, Double lon, String imageRef) {
+        ContentValues values = new ContentValues();
+        values.put("text", text);
+        values.put("lat", lat);
+        values.put("lon", lon);
+        values.put("created_at", System.currentTimeMillis());
+        values.put("status", STATUS_OPEN);
+        values.put("image_ref", imageRef);
+        return values;
+    }
+
+    /** Add several complaints in one transaction; either all are stored or none are */
+    public void insertAll(List<ContentValues> rows) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (ContentValues values : rows) db.insertOrThrow("complaints", null, values);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    public boolean updateStatus(long id, String status) {
+        ContentValues values = new ContentValues();
+        values.put("status", status);
+        return getWritableDatabase().update("complaints", values, "_id = ?",
+                new String[]{Long.toString(id)}) == 1;
+    }
+
+    public long count() {
+        return DatabaseUtils.queryNumEntries(getReadableDatabase(), "complaints");
+    }
+
+    public long countByStatus(String status) {
+        return DatabaseUtils.queryNumEntries(getReadableDatabase(), "complaints", "status = ?", new String[]{status});
+    }
+
+    /** Newest first, skipping offset rows */
+    public List<Complaint> recent(int limit, int offset) {
+        return query(null, null, limit, offset);
+    }
+
+    /**
+     * Newest first, starting just after the complaint (createdAt, id) in that order. Seeks the
+     * created_at index instead of stepping over skipped rows, so deep pages cost what the first does.
+     */
+    public List<Complaint> recentAfter(long createdAt, long id, int limit) {
+        return query("(created_at, _id) < (?, ?)", new String[]{Long.toString(createdAt), Long.toString(id)}, limit, 0);
+    }
+
+    /** Newest first among complaints with this status */
+    public List<Complaint> byStatus(String status, int limit, int offset) {
+        return query("status = ?", new String[]{status}, limit, offset);
+    }
+
+    /** Complaints created in [fromMillis, toMillis), newest first */
+    public List<Complaint> between(long fromMillis, long toMillis, int limit) {
+        return query("created_at >= ? AND created_at < ?",
+                new String[]{Long.toString(fromMillis), Long.toString(toMillis)}, limit, 0);
+    }
+
+    private List<Complaint> query(String selection, String[] args, int limit, int offset) {
+        List<Complaint> complaints = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query("complaints", COLUMNS, selection, args, null, null,
+                "created_at DESC, _id DESC", String.format(Locale.US, "%d,%d", offset, limit))) {
+            while (c.moveToNext()) {
+                complaints.add(new Complaint(c.getLong(0), c.getString(1),
+                        c.isNull(2) ? null : c.getDouble(2), c.isNull(3) ? null : c.getDouble(3),
+                        c.getLong(4), c.getString(5), c.getString(6)));
+            }
+        }
+        return complaints;
+    }
+
+    public void clear() {
+        getWritableDatabase().delete("complaints", null, null);
+    }
+}
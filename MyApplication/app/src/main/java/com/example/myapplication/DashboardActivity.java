@@ -7,11 +7,14 @@ import android.widget.TextView;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import java.util.List;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
 
 public class DashboardActivity extends AppCompatActivity {
 
-    private TextView tvComplaintCount;
+    private TextView tvComplaintCount, tvInferenceTimings;
     private Button btnStatus, btnProfile;
 
     @Override
@@ -20,13 +23,34 @@ public class DashboardActivity extends AppCompatActivity {
         setContentView(R.layout.activity_dashboard);
 
         tvComplaintCount = findViewById(R.id.tvComplaintCount);
+        tvInferenceTimings = findViewById(R.id.tvInferenceTimings);
         btnStatus = findViewById(R.id.btnStatus);
         btnProfile = findViewById(R.id.btnProfile);
 
-        // Load number of complaints
+        // Complaint counters, kept up to date by the store on every write
         ComplainActivity complaintManager = new ComplainActivity(this);
-        List<String> complaints = complaintManager.getAllComplaints();
-        tvComplaintCount.setText("Total Complaints: " + complaints.size());
+        ComplaintStore.Stats complaintStats = complaintManager.getStats(1);
+        String counts = "Total Complaints: " + complaintStats.total
+                + "\nOpen: " + complaintStats.status(ComplaintStore.STATUS_OPEN)
+                + " | Resolved: " + complaintStats.status(ComplaintStore.STATUS_RESOLVED)
+                + " | Today: " + complaintStats.day(new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date()));
+        if (complaintStats.lastCreatedAt > 0) {
+            counts += "\nLast submitted: " + DateFormat.getDateTimeInstance().format(new Date(complaintStats.lastCreatedAt));
+        }
+        tvComplaintCount.setText(counts);
+
+        // Timings of the latest on-device classification
+        StageTimings timings = StageTimings.load(this);
+        long coldStartMs = StageTimings.loadColdStart(this);
+        String stats = timings != null
+                ? "Last classification:\n" + timings
+                : "No classifications yet";
+        if (coldStartMs >= 0) stats += "\nModel load: " + coldStartMs + " ms";
+        String cacheStats = ClassificationCache.statsSummary(this);
+        if (cacheStats != null) stats += "\nResult cache: " + cacheStats;
+        String decodeStats = BitmapDecoder.statsSummary(this);
+        if (decodeStats != null) stats += "\nImage decode: " + decodeStats;
+        tvInferenceTimings.setText(stats);
 
         btnStatus.setOnClickListener(v ->
                 startActivity(new Intent(DashboardActivity.this, StatusActivity.class))
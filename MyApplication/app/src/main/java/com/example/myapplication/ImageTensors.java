@@ -0,0 +1,37 @@
+package com.example.myapplication;
+
+import java.nio.FloatBuffer;
+
+/**
+ * ImageTensors holds the Bitmap-independent part of the model preprocessing.
+ * It has no Android dependencies, so the JVM benchmark module compiles and
+ * measures this exact code.
+ */
+public final class ImageTensors {
+
+    // Normalized value of every 8-bit sample, one table per channel (ImageNet mean/std)
+    private static final float[] RED = channelTable(0.485, 0.229);
+    private static final float[] GREEN = channelTable(0.456, 0.224);
+    private static final float[] BLUE = channelTable(0.406, 0.225);
+
+    private ImageTensors() {
+    }
+
+    private static float[] channelTable(double mean, double std) {
+        float[] table = new float[256];
+        for (int v = 0; v < 256; v++) table[v] = (float) ((v / 255.0 - mean) / std);
+        return table;
+    }
+
+    /**
+     * Normalize size x size packed ARGB pixels, as returned by Bitmap.getPixels, straight into
+     * dst as a CHW tensor starting at its current position. Each plane is written in one
+     * sequential pass through the lookup tables; dst's position ends after the tensor.
+     */
+    public static void writeArgb(int[] pixels, int size, FloatBuffer dst) {
+        int count = size * size;
+        for (int i = 0; i < count; i++) dst.put(RED[(pixels[i] >> 16) & 0xFF]);
+        for (int i = 0; i < count; i++) dst.put(GREEN[(pixels[i] >> 8) & 0xFF]);
+        for (int i = 0; i < count; i++) dst.put(BLUE[pixels[i] & 0xFF]);
+    }
+}
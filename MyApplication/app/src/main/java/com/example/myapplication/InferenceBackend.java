@@ -0,0 +1,23 @@
+package com.example.myapplication;
+
+import java.nio.FloatBuffer;
+
+/**
+ * InferenceBackend is the model runtime used by InferenceService.
+ * Callers fill the input buffer with the normalized CHW image (ImageTensors) and get the
+ * class scores back from run(), whichever runtime executes the model.
+ */
+public interface InferenceBackend extends AutoCloseable {
+
+    /** Input buffer to fill before calling run(), rewound to position 0 */
+    FloatBuffer getInputBuffer();
+
+    /** Run the model on the input buffer and return the scores of the first row */
+    float[] run() throws Exception;
+
+    /** Native heap currently allocated by the process */
+    long nativeBytesInUse();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,166 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InferenceService runs decode, preprocess, inference and persistence for one image
+ * on a single background thread and posts the result back to the main thread.
+ * Submitting a new image cancels the one in flight; a cancelled request never
+ * delivers a result. Images that look like one classified before are answered from
+ * the ClassificationCache without running the model.
+ */
+public class InferenceService {
+
+    private static final String TAG = "InferenceService";
+    private static final int IMG_SIZE = 224;
+    private static final int CACHE_CAPACITY = 200;
+    // dHash bits two images may differ by and still count as the same picture
+    private static final int CACHE_MAX_DISTANCE = 4;
+
+    /** Produces the bitmap to classify; called on the worker thread */
+    public interface BitmapSource {
+        Bitmap decode() throws Exception;
+    }
+
+    /** Called on the main thread once the model has loaded or failed to */
+    public interface LoadCallback {
+        void onLoaded(long coldStartMs);
+
+        void onError(Exception e);
+    }
+
+    /** Called on the main thread */
+    public interface Callback {
+        void onResult(Bitmap bitmap, String label, StageTimings timings);
+
+        void onError(Exception e);
+    }
+
+    private final Context context;
+    private final String[] classNames;
+    private final ComplainActivity complaintManager;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicLong generation = new AtomicLong();
+    private final ClassificationCache cache;
+    // Pixels of the resized image, reused for every classification on the worker thread
+    private final int[] pixels = new int[IMG_SIZE * IMG_SIZE];
+    private InferenceBackend inference;
+    private Future<?> current;
+
+    public InferenceService(Context context, String[] classNames, ComplainActivity complaintManager) {
+        this.context = context.getApplicationContext();
+        this.classNames = classNames;
+        this.complaintManager = complaintManager;
+        this.cache = new ClassificationCache(this.context, CACHE_CAPACITY, CACHE_MAX_DISTANCE);
+    }
+
+    /**
+     * Load the model on the worker thread. Images submitted meanwhile queue up behind
+     * the load, so the first prediction runs as soon as the session is ready.
+     */
+    public void loadModel(String assetName, LoadCallback callback) {
+        executor.execute(() -> {
+            try {
+                long start = SystemClock.elapsedRealtime();
+                inference = ModelLoader.load(context, assetName, new long[]{1, 3, IMG_SIZE, IMG_SIZE},
+                        BuildConfig.INFERENCE_BACKEND);
+                cache.open(assetName + ":" + ModelLoader.assetLength(context, assetName));
+                long coldStartMs = SystemClock.elapsedRealtime() - start;
+                Log.i(TAG, "Model cold start: " + coldStartMs + " ms");
+                StageTimings.saveColdStart(context, coldStartMs);
+                mainHandler.post(() -> callback.onLoaded(coldStartMs));
+            } catch (Exception e) {
+                mainHandler.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /** Classify an image, cancelling any request still in progress. Call from the main thread. */
+    public void classify(BitmapSource source, Callback callback) {
+        long id = generation.incrementAndGet();
+        if (current != null) current.cancel(true);
+        current = executor.submit(() -> run(id, source, callback));
+    }
+
+    private void run(long id, BitmapSource source, Callback callback) {
+        try {
+            long t0 = SystemClock.elapsedRealtime();
+            Bitmap bitmap = source.decode();
+            if (bitmap == null) throw new IllegalArgumentException("Could not decode image");
+            long t1 = SystemClock.elapsedRealtime();
+            if (isStale(id)) return;
+
+            long hash = ClassificationCache.dHash(bitmap);
+            String cached = cache.get(hash);
+            String label;
+            long t2, t3;
+            if (cached != null) {
+                label = cached;
+                t2 = t3 = SystemClock.elapsedRealtime();
+                Log.d(TAG, "Cache hit: " + label);
+            } else {
+                if (inference == null) throw new IllegalStateException("Model not loaded");
+                Bitmap resized = Bitmap.createScaledBitmap(bitmap, IMG_SIZE, IMG_SIZE, true);
+                resized.getPixels(pixels, 0, IMG_SIZE, 0, 0, IMG_SIZE, IMG_SIZE);
+                if (resized != bitmap) resized.recycle();
+                ImageTensors.writeArgb(pixels, IMG_SIZE, inference.getInputBuffer());
+                t2 = SystemClock.elapsedRealtime();
+                if (isStale(id)) return;
+
+                float[] scores = inference.run();
+                Log.d(TAG, "Native heap after inference: " + inference.nativeBytesInUse() + " bytes");
+                int maxIdx = 0;
+                for (int i = 1; i < scores.length; i++) {
+                    if (scores[i] > scores[maxIdx]) maxIdx = i;
+                }
+                label = classNames[maxIdx];
+                cache.put(hash, label);
+                t3 = SystemClock.elapsedRealtime();
+            }
+            if (isStale(id)) return;
+
+            // Save image info for dashboard
+            String imageInfo = "Image: " + System.currentTimeMillis() + " | Prediction: Prediction: " + label;
+            complaintManager.saveImageInfo(imageInfo);
+            long t4 = SystemClock.elapsedRealtime();
+
+            StageTimings timings = new StageTimings(t1 - t0, t2 - t1, t3 - t2, t4 - t3);
+            timings.save(context);
+            mainHandler.post(() -> {
+                if (!isStale(id)) callback.onResult(bitmap, label, timings);
+            });
+        } catch (Exception e) {
+            if (isStale(id)) return;
+            mainHandler.post(() -> {
+                if (!isStale(id)) callback.onError(e);
+            });
+        }
+    }
+
+    private boolean isStale(long id) {
+        return generation.get() != id;
+    }
+
+    /** Cancel pending work, close the session on the worker thread and stop it */
+    public void shutdown() {
+        generation.incrementAndGet();
+        executor.execute(() -> {
+            if (inference != null) {
+                inference.close();
+                inference = null;
+            }
+        });
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.myapplication;
+
+import android.os.Debug;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Collections;
+import java.util.Map;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+/**
+ * InferenceSession owns the ONNX session together with one pre-allocated input tensor.
+ * The input tensor is backed by a direct buffer that is rewritten for every image,
+ * and each result is closed as soon as its scores are read, so repeated
+ * classifications do not grow native memory.
+ */
+public class InferenceSession implements InferenceBackend {
+
+    private final OrtSession session;
+    private final FloatBuffer inputBuffer;
+    private final OnnxTensor inputTensor;
+    private final Map<String, OnnxTensor> inputs;
+
+    public InferenceSession(OrtEnvironment env, OrtSession session, long[] shape) throws OrtException {
+        this.session = session;
+
+        long elements = 1;
+        for (long d : shape) elements *= d;
+        inputBuffer = ByteBuffer.allocateDirect((int) elements * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        inputTensor = OnnxTensor.createTensor(env, inputBuffer, shape);
+        inputs = Collections.singletonMap(session.getInputNames().iterator().next(), inputTensor);
+    }
+
+    @Override
+    public FloatBuffer getInputBuffer() {
+        inputBuffer.rewind();
+        return inputBuffer;
+    }
+
+    @Override
+    public float[] run() throws OrtException {
+        try (OrtSession.Result result = session.run(inputs)) {
+            return ((float[][]) result.get(0).getValue())[0];
+        }
+    }
+
+    /** Native heap currently allocated by the process, including ONNX Runtime */
+    @Override
+    public long nativeBytesInUse() {
+        return Debug.getNativeHeapAllocatedSize();
+    }
+
+    /** Close the input tensor and the session; a failed session close is only logged */
+    @Override
+    public void close() {
+        inputTensor.close();
+        try {
+            session.close();
+        } catch (OrtException e) {
+            e.printStackTrace();
+        }
+    }
+}
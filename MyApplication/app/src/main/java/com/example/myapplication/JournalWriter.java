@@ -0,0 +1,158 @@
+package com.example.myapplication;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JournalWriter takes records from any thread and writes them on one background thread in groups.
+ * After the first record of a group arrives it waits up to maxDelayMs for more, or until maxBatch
+ * records are queued, then hands each run of consecutive records for the same sink to it in one
+ * write call, so several records share one file open and flush or one database transaction while
+ * records for different sinks are still written in the order they were queued. Callbacks run on
+ * the main thread once the record's group has been written. flush() waits until everything queued
+ * before it is written; the main thread should use the timed form.
+ */
+public class JournalWriter {
+
+    private static final String TAG = "JournalWriter";
+    private static final int MAX_BATCH = 64;
+    private static final long MAX_DELAY_MS = 50;
+
+    /** Writes a group of records in order; throwing fails every record in the group */
+    public interface Sink<T> {
+        void write(List<T> records) throws Exception;
+    }
+
+    /** Called on the main thread (the callback executor); error is null when the record was written */
+    public interface Callback {
+        void onComplete(Exception error);
+    }
+
+    private static final class Entry {
+        final Sink<Object> sink;
+        final Object record;
+        final Callback callback;
+        final CountDownLatch barrier;
+
+        Entry(Sink<Object> sink, Object record, Callback callback, CountDownLatch barrier) {
+            this.sink = sink;
+            this.record = record;
+            this.callback = callback;
+            this.barrier = barrier;
+        }
+    }
+
+    private static JournalWriter instance;
+
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final Executor callbackExecutor;
+    private final int maxBatch;
+    private final long maxDelayMs;
+    private final Thread thread;
+
+    /** The app-wide writer, with callbacks on the main thread */
+    public static synchronized JournalWriter get() {
+        if (instance == null) {
+            instance = new JournalWriter(MAX_BATCH, MAX_DELAY_MS, new Handler(Looper.getMainLooper())::post);
+        }
+        return instance;
+    }
+
+    /** A writer whose callbacks run on callbackExecutor */
+    JournalWriter(int maxBatch, long maxDelayMs, Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        this.maxBatch = maxBatch;
+        this.maxDelayMs = maxDelayMs;
+        this.thread = new Thread(this::writeLoop, "journal-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Queue a record for sink; callback may be null */
+    @SuppressWarnings("unchecked")
+    public <T> void append(Sink<T> sink, T record, Callback callback) {
+        queue.add(new Entry((Sink<Object>) sink, record, callback, null));
+    }
+
+    /** Block until every record queued before this call has been written (or has failed) */
+    public void flush() throws InterruptedException {
+        queueBarrier().await();
+    }
+
+    /** As flush(), but give up after timeout; returns false if records may still be unwritten */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        return queueBarrier().await(timeout, unit);
+    }
+
+    private CountDownLatch queueBarrier() {
+        CountDownLatch barrier = new CountDownLatch(1);
+        queue.add(new Entry(null, null, null, barrier));
+        return barrier;
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                // A barrier ends the group at once; everything before it is written next
+                while (batch.size() < maxBatch && batch.get(batch.size() - 1).barrier == null) {
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) break;
+                    Entry next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // Anything already waiting rides along with this group
+                while (batch.size() < maxBatch && batch.get(batch.size() - 1).barrier == null) {
+                    Entry next = queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        for (int start = 0, end; start < batch.size(); start = end) {
+            Sink<Object> sink = batch.get(start).sink;
+            end = start + 1;
+            while (end < batch.size() && batch.get(end).sink == sink) end++;
+            if (sink != null) write(sink, batch.subList(start, end));
+        }
+        for (Entry e : batch) {
+            if (e.barrier != null) e.barrier.countDown();
+        }
+    }
+
+    private void write(Sink<Object> sink, List<Entry> group) {
+        List<Object> records = new ArrayList<>(group.size());
+        for (Entry e : group) records.add(e.record);
+        Exception error = null;
+        try {
+            sink.write(records);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write " + records.size() + " records", e);
+            error = e;
+        }
+        for (Entry e : group) {
+            if (e.callback == null) continue;
+            Exception result = error;
+            callbackExecutor.execute(() -> e.callback.onComplete(result));
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.myapplication;
 
-import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
 import android.widget.Button;
@@ -9,15 +8,10 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class LoginActivity extends AppCompatActivity {
 
-    private static final String FILE_NAME = "users.txt";
     private EditText etUsername;
     private Button btnLogin;
 
@@ -51,23 +45,17 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private boolean userExists(String username) {
-        File file = new File(getFilesDir(), FILE_NAME);
-        if (!file.exists()) return false;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.equals(username)) return true;
-            }
+        try {
+            return UserIndex.get(this).contains(username);
         } catch (IOException e) {
             e.printStackTrace();
+            return false;
         }
-        return false;
     }
 
     private void createUser(String username) {
-        try (FileOutputStream fos = openFileOutput(FILE_NAME, Context.MODE_APPEND)) {
-            fos.write((username + "\n").getBytes());
+        try {
+            UserIndex.get(this).add(username);
         } catch (IOException e) {
             e.printStackTrace();
         }
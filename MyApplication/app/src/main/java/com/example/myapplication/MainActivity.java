@@ -5,11 +5,11 @@ import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.location.Location;
 import android.net.Uri;
 import android.os.Bundle;
 import android.provider.MediaStore;
+import android.util.Log;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.ImageView;
@@ -22,30 +22,27 @@ import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
 import org.opencv.android.OpenCVLoader;
-import org.opencv.android.Utils;
-import org.opencv.core.Mat;
-import org.opencv.imgproc.Imgproc;
-
-import ai.onnxruntime.OnnxTensor;
-import ai.onnxruntime.OrtEnvironment;
-import ai.onnxruntime.OrtSession;
-
-import java.io.InputStream;
-import java.nio.FloatBuffer;
-import java.util.Collections;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final int REQUEST_CAMERA = 100;
     private static final int REQUEST_GALLERY = 101;
-    private static final int IMG_SIZE = 224;
+    // Accuracy (percentage points) the INT8 model may lose before the FP32 model is used
+    private static final double INT8_ACCURACY_MARGIN = 1.0;
+    // Gallery images decode to at least this short side: twice the model input keeps the preview sharp
+    private static final int DECODE_TARGET_SIZE = 448;
+    private static final long FLUSH_TIMEOUT_MS = 500;
+    private static final String TAG = "MainActivity";
 
     private ImageView imgPreview;
     private TextView tvResult;
     private EditText etComplaint;
     private Button btnSubmitComplaint, btnGetLocation, btnDashboard, btnStatus, btnProfile;
-    private OrtSession session;
-    private OrtEnvironment env;
+    private InferenceService inferenceService;
+    private BitmapDecoder bitmapDecoder;
+    private Bitmap previewBitmap;
+    // Gallery URI of the last classified picture, attached to the next complaint
+    private String lastImageRef;
 
     private ComplainActivity complaintManager;
     private LocationManagerHelper locationHelper;
@@ -88,14 +85,21 @@ public class MainActivity extends AppCompatActivity {
             }, 1);
         }
 
-        // Load ONNX model
-        try {
-            env = OrtEnvironment.getEnvironment();
-            session = env.createSession(getAssets().open("model.onnx").readAllBytes(), new OrtSession.SessionOptions());
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "ONNX load failed", Toast.LENGTH_SHORT).show();
-        }
+        // Load ONNX model in the background
+        inferenceService = new InferenceService(this, CLASS_NAMES, complaintManager);
+        bitmapDecoder = new BitmapDecoder(this, DECODE_TARGET_SIZE);
+        inferenceService.loadModel(ModelSelector.choose(this, INT8_ACCURACY_MARGIN), new InferenceService.LoadCallback() {
+            @Override
+            public void onLoaded(long coldStartMs) {
+                Toast.makeText(MainActivity.this, "Model ready (" + coldStartMs + " ms)", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                Toast.makeText(MainActivity.this, "ONNX load failed", Toast.LENGTH_SHORT).show();
+            }
+        });
 
         // Camera button
         btnCamera.setOnClickListener(v -> {
@@ -120,16 +124,16 @@ public class MainActivity extends AppCompatActivity {
             if (!complaint.isEmpty()) {
                 double lat = locationHelper.getLatitude();
                 double lon = locationHelper.getLongitude();
-                String fullComplaint = complaint;
-
-                if (lat != 0.0 && lon != 0.0) {
-                    fullComplaint += " | Location: " + lat + ", " + lon;
-                } else {
-                    fullComplaint += " | Location: Not available";
-                }
-
-                complaintManager.saveComplaint(fullComplaint);
-                Toast.makeText(MainActivity.this, "Complaint submitted!", Toast.LENGTH_SHORT).show();
+                boolean located = lat != 0.0 && lon != 0.0;
+
+                complaintManager.saveComplaint(complaint, located ? lat : null, located ? lon : null, lastImageRef,
+                        error -> {
+                            if (error == null) {
+                                Toast.makeText(MainActivity.this, "Complaint submitted!", Toast.LENGTH_SHORT).show();
+                            } else {
+                                Toast.makeText(MainActivity.this, "Failed to save complaint", Toast.LENGTH_SHORT).show();
+                            }
+                        });
                 etComplaint.setText("");
             } else {
                 Toast.makeText(MainActivity.this, "Please enter a complaint.", Toast.LENGTH_SHORT).show();
@@ -174,73 +178,46 @@ public class MainActivity extends AppCompatActivity {
         super.onActivityResult(requestCode, resultCode, data);
         if (resultCode != RESULT_OK || data == null) return;
 
-        Bitmap bitmap = null;
-        try {
-            if (requestCode == REQUEST_CAMERA) {
-                bitmap = (Bitmap) data.getExtras().get("data");
-            } else if (requestCode == REQUEST_GALLERY) {
-                Uri imageUri = data.getData();
-                InputStream is = getContentResolver().openInputStream(imageUri);
-                bitmap = BitmapFactory.decodeStream(is);
-            }
+        InferenceService.BitmapSource source;
+        if (requestCode == REQUEST_CAMERA) {
+            Bitmap thumbnail = (Bitmap) data.getExtras().get("data");
+            lastImageRef = null;
+            source = () -> thumbnail;
+        } else if (requestCode == REQUEST_GALLERY) {
+            Uri imageUri = data.getData();
+            lastImageRef = imageUri != null ? imageUri.toString() : null;
+            source = () -> bitmapDecoder.decode(imageUri);
+        } else {
+            return;
+        }
 
-            if (bitmap != null) {
+        tvResult.setText("Classifying...");
+        inferenceService.classify(source, new InferenceService.Callback() {
+            @Override
+            public void onResult(Bitmap bitmap, String label, StageTimings timings) {
                 imgPreview.setImageBitmap(bitmap);
-                Bitmap resized = Bitmap.createScaledBitmap(bitmap, IMG_SIZE, IMG_SIZE, true);
-                float[][][][] input = preprocess(resized);
-                runModel(input);
-
-                // Save image info for dashboard
-                String prediction = tvResult.getText().toString();
-                String imageInfo = "Image: " + System.currentTimeMillis() + " | Prediction: " + prediction;
-                complaintManager.saveImageInfo(imageInfo);
+                // The previous preview is no longer shown, so its pixels can take the next decode
+                if (previewBitmap != bitmap) bitmapDecoder.reuse(previewBitmap);
+                previewBitmap = bitmap;
+                tvResult.setText("Prediction: " + label);
             }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    private float[][][][] preprocess(Bitmap bitmap) {
-        Mat mat = new Mat();
-        Utils.bitmapToMat(bitmap, mat);
-        Imgproc.cvtColor(mat, mat, Imgproc.COLOR_RGBA2RGB);
-
-        float[][][][] input = new float[1][3][IMG_SIZE][IMG_SIZE];
-        for (int y = 0; y < IMG_SIZE; y++) {
-            for (int x = 0; x < IMG_SIZE; x++) {
-                double[] pixel = mat.get(y, x);
-                input[0][0][y][x] = (float) ((pixel[0] / 255.0 - 0.485) / 0.229);
-                input[0][1][y][x] = (float) ((pixel[1] / 255.0 - 0.456) / 0.224);
-                input[0][2][y][x] = (float) ((pixel[2] / 255.0 - 0.406) / 0.225);
+            @Override
+            public void onError(Exception e) {
+                e.printStackTrace();
+                tvResult.setText("Prediction failed");
             }
-        }
-        return input;
+        });
     }
 
-    private void runModel(float[][][][] input) {
-        try {
-            OnnxTensor tensor = OnnxTensor.createTensor(env, FloatBuffer.wrap(flatten(input)),
-                    new long[]{1, 3, IMG_SIZE, IMG_SIZE});
-            OrtSession.Result result = session.run(Collections.singletonMap("input", tensor));
-            float[] scores = ((float[][]) result.get(0).getValue())[0];
-            int maxIdx = 0;
-            for (int i = 1; i < scores.length; i++) {
-                if (scores[i] > scores[maxIdx]) maxIdx = i;
-            }
-            tvResult.setText("Prediction: " + CLASS_NAMES[maxIdx]);
-        } catch (Exception e) {
-            e.printStackTrace();
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        inferenceService.shutdown();
+        // The journal is app-wide and outlives configuration changes; only wait when leaving, and
+        // not long enough to risk an ANR
+        if (isFinishing() && !complaintManager.flush(FLUSH_TIMEOUT_MS)) {
+            Log.w(TAG, "Journal not flushed within " + FLUSH_TIMEOUT_MS + " ms; writing in the background");
         }
     }
-
-    private float[] flatten(float[][][][] input) {
-        float[] flat = new float[3 * IMG_SIZE * IMG_SIZE];
-        int idx = 0;
-        for (int c = 0; c < 3; c++)
-            for (int y = 0; y < IMG_SIZE; y++)
-                for (int x = 0; x < IMG_SIZE; x++)
-                    flat[idx++] = input[0][c][y][x];
-        return flat;
-    }
 }
@@ -0,0 +1,55 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+
+/**
+ * ModelLoader creates the ONNX session straight from the APK.
+ * The model asset is stored uncompressed (noCompress("onnx") in the build), so it can be
+ * memory-mapped through its file descriptor instead of being copied onto the Java heap.
+ * Call off the main thread.
+ */
+public class ModelLoader {
+
+    private static final String TAG = "ModelLoader";
+
+    private ModelLoader() {
+    }
+
+    /**
+     * Map the asset and load it into the given backend: "opencv" for OpenCV DNN,
+     * anything else for ONNX Runtime with the tuned options for this device
+     */
+    public static InferenceBackend load(Context context, String assetName, long[] inputShape, String backend)
+            throws IOException, OrtException {
+        MappedByteBuffer model = mapAsset(context, assetName);
+        Log.i(TAG, "Mapped " + assetName + " (" + model.capacity() + " bytes) for " + backend);
+        if ("opencv".equals(backend)) return new OpenCvDnnBackend(model, inputShape);
+        return SessionTuner.createSession(context, OrtEnvironment.getEnvironment(), model, inputShape);
+    }
+
+    /** Size in bytes of an uncompressed asset */
+    static long assetLength(Context context, String assetName) throws IOException {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(assetName)) {
+            return afd.getLength();
+        }
+    }
+
+    /** Read-only mapping of an uncompressed asset; fails if the asset is compressed */
+    static MappedByteBuffer mapAsset(Context context, String assetName) throws IOException {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(assetName);
+             FileInputStream in = afd.createInputStream();
+             FileChannel channel = in.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getDeclaredLength());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * ModelSelector chooses between the FP32 model and its INT8 variant.
+ * The desktop ModelGate tool scores both on the test split; its report is bundled as
+ * assets/model_gate.properties. The INT8 asset is only used when it is bundled, the report's
+ * recorded file sizes match both bundled assets, and its top-1 accuracy in the report is within
+ * the given margin of FP32. A missing, stale or malformed report selects FP32.
+ */
+public class ModelSelector {
+
+    public static final String FP32_ASSET = "model.onnx";
+    public static final String INT8_ASSET = "model_int8.onnx";
+    private static final String REPORT_ASSET = "model_gate.properties";
+    private static final String TAG = "ModelSelector";
+
+    private ModelSelector() {
+    }
+
+    /** Asset name of the model to load; marginPct is in accuracy percentage points */
+    public static String choose(Context context, double marginPct) {
+        Properties report = new Properties();
+        try {
+            String[] assets = context.getAssets().list("");
+            if (assets == null || !Arrays.asList(assets).contains(INT8_ASSET)) return FP32_ASSET;
+            try (InputStream in = context.getAssets().open(REPORT_ASSET)) {
+                report.load(in);
+            }
+            // A report for other model files says nothing about these ones
+            if (!matches(context, report, "fp32", FP32_ASSET) || !matches(context, report, "int8", INT8_ASSET)) {
+                Log.w(TAG, REPORT_ASSET + " is out of date, using " + FP32_ASSET);
+                return FP32_ASSET;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "No model gate report, using " + FP32_ASSET);
+            return FP32_ASSET;
+        }
+
+        double fp32Top1;
+        double int8Top1;
+        try {
+            fp32Top1 = Double.parseDouble(report.getProperty("fp32.top1"));
+            int8Top1 = Double.parseDouble(report.getProperty("int8.top1"));
+        } catch (NullPointerException | NumberFormatException e) {
+            Log.w(TAG, "Incomplete model gate report, using " + FP32_ASSET);
+            return FP32_ASSET;
+        }
+        String chosen = int8Top1 >= fp32Top1 - marginPct ? INT8_ASSET : FP32_ASSET;
+        Log.i(TAG, "FP32 " + fp32Top1 + "% vs INT8 " + int8Top1 + "% (margin " + marginPct + ") -> " + chosen);
+        return chosen;
+    }
+
+    private static boolean matches(Context context, Properties report, String prefix, String asset)
+            throws IOException {
+        return String.valueOf(ModelLoader.assetLength(context, asset)).equals(report.getProperty(prefix + ".bytes"));
+    }
+}
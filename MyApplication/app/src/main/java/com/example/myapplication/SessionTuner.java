@@ -0,0 +1,218 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtProvider;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+
+/**
+ * SessionTuner picks the fastest SessionOptions for this device.
+ * The first time a model is loaded it builds each candidate session (CPU with several
+ * intra-op thread counts, XNNPACK and NNAPI when the runtime has them) and times it on a
+ * zeroed warm-up tensor. Providers are compared at ALL_OPT, then the winner is timed again
+ * at the lower optimization levels. The choice is saved per build fingerprint, runtime
+ * version, model and input shape, so later loads create the saved configuration directly.
+ * Call off the main thread.
+ */
+public class SessionTuner {
+
+    private static final String TAG = "SessionTuner";
+    private static final String PREFS = "session_tuning";
+    private static final int WARMUP_RUNS = 2;
+    private static final int TIMED_RUNS = 5;
+    private static final Config DEFAULT = new Config("cpu", Runtime.getRuntime().availableProcessors(), OptLevel.ALL_OPT);
+
+    /** One candidate: execution provider, intra-op threads and graph optimization level */
+    static final class Config {
+        final String provider;
+        final int threads;
+        final OptLevel optLevel;
+
+        Config(String provider, int threads, OptLevel optLevel) {
+            this.provider = provider;
+            this.threads = threads;
+            this.optLevel = optLevel;
+        }
+
+        Config withOptLevel(OptLevel level) {
+            return new Config(provider, threads, level);
+        }
+
+        OrtSession.SessionOptions toOptions() throws OrtException {
+            OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+            options.setOptimizationLevel(optLevel);
+            switch (provider) {
+                case "xnnpack":
+                    // XNNPACK runs its own thread pool; keep ORT's pool from spinning next to it
+                    options.setIntraOpNumThreads(1);
+                    options.addConfigEntry("session.intra_op.allow_spinning", "0");
+                    options.addXnnpack(Collections.singletonMap("intra_op_num_threads", String.valueOf(threads)));
+                    break;
+                case "nnapi":
+                    options.addNnapi();
+                    options.setIntraOpNumThreads(threads);
+                    break;
+                default:
+                    options.setIntraOpNumThreads(threads);
+            }
+            return options;
+        }
+
+        String encode() {
+            return provider + ":" + threads + ":" + optLevel.name();
+        }
+
+        /** Parse a saved config, or null if it is missing or malformed */
+        static Config decode(String s) {
+            if (s == null) return null;
+            String[] parts = s.split(":");
+            if (parts.length != 3) return null;
+            try {
+                return new Config(parts[0], Integer.parseInt(parts[1]), OptLevel.valueOf(parts[2]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return provider + " x" + threads + " " + optLevel;
+        }
+    }
+
+    /** A candidate session together with its median warm-up run time */
+    private static final class Trial {
+        final Config config;
+        final InferenceSession session;
+        final long medianNanos;
+
+        Trial(Config config, InferenceSession session, long medianNanos) {
+            this.config = config;
+            this.session = session;
+            this.medianNanos = medianNanos;
+        }
+    }
+
+    private SessionTuner() {
+    }
+
+    /**
+     * Session for the model using the saved configuration for this device,
+     * tuning and saving one first if there is none yet.
+     */
+    public static InferenceSession createSession(Context context, OrtEnvironment env, ByteBuffer model,
+                                                 long[] shape) throws OrtException {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        String key = fingerprint(env, model, shape);
+
+        Config saved = Config.decode(prefs.getString(key, null));
+        if (saved != null) {
+            try {
+                return open(env, model, shape, saved);
+            } catch (OrtException e) {
+                // e.g. a driver update broke the provider; fall through and tune again
+                Log.w(TAG, "Saved config " + saved + " failed, re-tuning", e);
+            }
+        }
+
+        Trial best = tune(env, model, shape);
+        prefs.edit().putString(key, best.config.encode()).apply();
+        return best.session;
+    }
+
+    private static Trial tune(OrtEnvironment env, ByteBuffer model, long[] shape) throws OrtException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        TreeSet<Integer> threadCounts = new TreeSet<>(Arrays.asList(1, 2, 4, cores));
+        threadCounts.removeIf(t -> t > cores);
+        EnumSet<OrtProvider> providers = OrtEnvironment.getAvailableProviders();
+
+        List<Config> candidates = new ArrayList<>();
+        for (int t : threadCounts) candidates.add(new Config("cpu", t, OptLevel.ALL_OPT));
+        if (providers.contains(OrtProvider.XNNPACK)) {
+            for (int t : threadCounts) candidates.add(new Config("xnnpack", t, OptLevel.ALL_OPT));
+        }
+        if (providers.contains(OrtProvider.NNAPI)) candidates.add(new Config("nnapi", cores, OptLevel.ALL_OPT));
+
+        Trial best = null;
+        for (Config c : candidates) best = faster(best, trial(env, model, shape, c));
+        if (best == null) return new Trial(DEFAULT, open(env, model, shape, DEFAULT), 0);
+
+        for (OptLevel level : new OptLevel[]{OptLevel.EXTENDED_OPT, OptLevel.BASIC_OPT, OptLevel.NO_OPT}) {
+            best = faster(best, trial(env, model, shape, best.config.withOptLevel(level)));
+        }
+        Log.i(TAG, "Selected " + best.config + " (" + best.medianNanos / 1000 + " us)");
+        return best;
+    }
+
+    /** Time one candidate, or null if the provider cannot run this model */
+    private static Trial trial(OrtEnvironment env, ByteBuffer model, long[] shape, Config config) {
+        InferenceSession session = null;
+        try {
+            session = open(env, model, shape, config);
+            for (int i = 0; i < WARMUP_RUNS; i++) session.run();
+            long[] times = new long[TIMED_RUNS];
+            for (int i = 0; i < TIMED_RUNS; i++) {
+                long start = System.nanoTime();
+                session.run();
+                times[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(times);
+            long median = times[TIMED_RUNS / 2];
+            Log.i(TAG, config + ": " + median / 1000 + " us");
+            return new Trial(config, session, median);
+        } catch (OrtException e) {
+            Log.w(TAG, config + " unavailable: " + e.getMessage());
+            closeQuietly(session);
+            return null;
+        }
+    }
+
+    /** Keep the faster trial and close the other */
+    private static Trial faster(Trial a, Trial b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        Trial loser = b.medianNanos < a.medianNanos ? a : b;
+        closeQuietly(loser.session);
+        return loser == a ? b : a;
+    }
+
+    private static InferenceSession open(OrtEnvironment env, ByteBuffer model, long[] shape, Config config)
+            throws OrtException {
+        try (OrtSession.SessionOptions options = config.toOptions()) {
+            OrtSession session = env.createSession(model.duplicate(), options);
+            try {
+                return new InferenceSession(env, session, shape);
+            } catch (OrtException | RuntimeException e) {
+                // The InferenceSession never took ownership, so the session is ours to close
+                try {
+                    session.close();
+                } catch (OrtException closeError) {
+                    e.addSuppressed(closeError);
+                }
+                throw e;
+            }
+        }
+    }
+
+    private static String fingerprint(OrtEnvironment env, ByteBuffer model, long[] shape) {
+        return Build.FINGERPRINT + "|" + env.getVersion() + "|" + model.capacity() + "|" + Arrays.toString(shape);
+    }
+
+    private static void closeQuietly(InferenceSession session) {
+        if (session != null) session.close();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.Locale;
+
+/**
+ * StageTimings records how long each step of one classification took.
+ * The latest timings are kept in shared preferences so the Dashboard can show them.
+ */
+public class StageTimings {
+
+    private static final String PREFS = "inference_stats";
+
+    public final long decodeMs;
+    public final long preprocessMs;
+    public final long inferMs;
+    public final long persistMs;
+
+    public StageTimings(long decodeMs, long preprocessMs, long inferMs, long persistMs) {
+        this.decodeMs = decodeMs;
+        this.preprocessMs = preprocessMs;
+        this.inferMs = inferMs;
+        this.persistMs = persistMs;
+    }
+
+    public long totalMs() {
+        return decodeMs + preprocessMs + inferMs + persistMs;
+    }
+
+    /** Store as the latest timings */
+    public void save(Context context) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putLong("decode", decodeMs)
+                .putLong("preprocess", preprocessMs)
+                .putLong("infer", inferMs)
+                .putLong("persist", persistMs)
+                .apply();
+    }
+
+    /** Latest saved timings, or null if nothing has been classified yet */
+    public static StageTimings load(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        if (!prefs.contains("infer")) return null;
+        return new StageTimings(prefs.getLong("decode", 0), prefs.getLong("preprocess", 0),
+                prefs.getLong("infer", 0), prefs.getLong("persist", 0));
+    }
+
+    /** Store how long the last model load took */
+    public static void saveColdStart(Context context, long coldStartMs) {
+        context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).edit()
+                .putLong("cold_start", coldStartMs)
+                .apply();
+    }
+
+    /** Last model load time in ms, or -1 if the model has not been loaded yet */
+    public static long loadColdStart(Context context) {
+        return context.getSharedPreferences(PREFS, Context.MODE_PRIVATE).getLong("cold_start", -1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "Decode %d ms | Preprocess %d ms | Infer %d ms | Persist %d ms (total %d ms)",
+                decodeMs, preprocessMs, inferMs, persistMs, totalMs());
+    }
+}
@@ -1,28 +1,29 @@
 package com.example.myapplication;
 
 import android.os.Bundle;
-import android.widget.ArrayAdapter;
 import android.widget.Button;
-import android.widget.ListView;
 
 import androidx.appcompat.app.AppCompatActivity;
-
-import java.util.List;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 public class StatusActivity extends AppCompatActivity {
 
+    private ComplaintPagingAdapter adapter;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_status);
 
-        ListView listView = findViewById(R.id.listComplaints);
-        ComplainActivity complaintManager = new ComplainActivity(this);
-        List<String> complaints = complaintManager.getAllComplaints();
-
-        ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                this, android.R.layout.simple_list_item_1, complaints);
+        // Complaints are read a page at a time as the list scrolls
+        RecyclerView listView = findViewById(R.id.listComplaints);
+        listView.setLayoutManager(new LinearLayoutManager(this));
+        listView.addItemDecoration(new DividerItemDecoration(this, DividerItemDecoration.VERTICAL));
+        adapter = new ComplaintPagingAdapter(this);
         listView.setAdapter(adapter);
+        adapter.start();
         if (getSupportActionBar() != null) {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         }
@@ -32,6 +33,12 @@ public class StatusActivity extends AppCompatActivity {
         btnBack.setOnClickListener(v -> finish());
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        adapter.close();
+    }
+
     @Override
     public boolean onSupportNavigateUp() {
         finish();
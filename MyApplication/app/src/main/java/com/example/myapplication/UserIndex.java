@@ -0,0 +1,229 @@
+package com.example.myapplication;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UserIndex answers "does this username exist" in constant time from users.idx, an open-addressing
+ * hash table stored on disk and memory-mapped, so opening it costs a map call rather than a
+ * read of every account.
+ *
+ * Layout: a 16-byte header (magic, slot count, user count, bytes used in the name heap), then
+ * slotCount slots of (String.hashCode, heap offset + 1; 0 is empty), then the name heap of
+ * length-prefixed UTF-8 names. New users are written into the mapping: the name first, then the
+ * heap size, then the slot that publishes it, so an interrupted add never leaves a slot pointing
+ * at unwritten bytes. Past half full the table is rebuilt at twice the size into a new file that
+ * replaces the old one by rename. users.txt is converted on first use and kept as users.txt.migrated.
+ */
+public class UserIndex {
+
+    private static final String TAG = "UserIndex";
+    private static final String FILE_NAME = "users.idx";
+    private static final String LEGACY_FILE = "users.txt";
+    private static final int MAGIC = 0x55535231; // "USR1"
+    private static final int HEADER = 16;
+    private static final int SLOT = 8;
+    private static final int MIN_SLOTS = 256;
+    // Name heap bytes reserved per slot; a full heap triggers a rebuild like a full table does
+    private static final int HEAP_PER_SLOT = 8;
+    private static final int MAX_NAME_BYTES = Short.MAX_VALUE;
+
+    private static UserIndex instance;
+
+    private final File file;
+    private final File legacyFile;
+    private MappedByteBuffer map;
+    private int slotCount;
+
+    /** The app-wide index, mapped on first use */
+    public static synchronized UserIndex get(Context context) throws IOException {
+        if (instance == null) {
+            long start = SystemClock.elapsedRealtimeNanos();
+            instance = new UserIndex(context.getFilesDir());
+            Log.i(TAG, String.format("Loaded %d users in %.2f ms", instance.size(),
+                    (SystemClock.elapsedRealtimeNanos() - start) / 1e6));
+        }
+        return instance;
+    }
+
+    UserIndex(File dir) throws IOException {
+        this.file = new File(dir, FILE_NAME);
+        this.legacyFile = new File(dir, LEGACY_FILE);
+        if (!file.exists()) {
+            // A read error propagates before anything is written, so the import is retried next time
+            List<String> names = readLegacyFile();
+            replace(names);
+            if (legacyFile.exists() && !legacyFile.renameTo(new File(dir, LEGACY_FILE + ".migrated"))) {
+                Log.w(TAG, "Could not rename " + LEGACY_FILE + " after import");
+            }
+        }
+        open();
+    }
+
+    private void open() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (map.getInt(0) != MAGIC) throw new IOException(FILE_NAME + " is not a user index");
+        slotCount = map.getInt(4);
+    }
+
+    public synchronized int size() {
+        return map.getInt(8);
+    }
+
+    public synchronized boolean contains(String username) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        int hash = username.hashCode();
+        for (int slot = hash & (slotCount - 1); ; slot = (slot + 1) & (slotCount - 1)) {
+            int pos = HEADER + slot * SLOT;
+            int ref = map.getInt(pos + 4);
+            if (ref == 0) return false;
+            if (map.getInt(pos) == hash && nameEquals(map, heapStart(slotCount) + ref - 1, name)) return true;
+        }
+    }
+
+    /** Add a username; returns false if it was already there */
+    public synchronized boolean add(String username) throws IOException {
+        if (contains(username)) return false;
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) throw new IllegalArgumentException("Username too long");
+
+        int users = size();
+        int heapUsed = map.getInt(12);
+        int heapCapacity = map.capacity() - heapStart(slotCount);
+        if ((users + 1) * 2 > slotCount || heapUsed + 2 + name.length > heapCapacity) {
+            List<String> names = names();
+            names.add(username);
+            replace(names);
+            open();
+            return true;
+        }
+
+        // Name bytes, then heap size, then the slot that makes the name visible
+        int offset = heapStart(slotCount) + heapUsed;
+        map.putShort(offset, (short) name.length);
+        for (int i = 0; i < name.length; i++) map.put(offset + 2 + i, name[i]);
+        map.putInt(12, heapUsed + 2 + name.length);
+        int hash = username.hashCode();
+        int slot = hash & (slotCount - 1);
+        while (map.getInt(HEADER + slot * SLOT + 4) != 0) slot = (slot + 1) & (slotCount - 1);
+        map.putInt(HEADER + slot * SLOT, hash);
+        map.putInt(HEADER + slot * SLOT + 4, heapUsed + 1);
+        map.putInt(8, users + 1);
+        map.force();
+        return true;
+    }
+
+    /** All usernames, in the order they were added */
+    synchronized List<String> names() {
+        List<String> names = new ArrayList<>(size());
+        int start = heapStart(slotCount);
+        int end = start + map.getInt(12);
+        for (int pos = start; pos < end; ) {
+            int length = map.getShort(pos);
+            byte[] name = new byte[length];
+            for (int i = 0; i < length; i++) name[i] = map.get(pos + 2 + i);
+            names.add(new String(name, StandardCharsets.UTF_8));
+            pos += 2 + length;
+        }
+        return names;
+    }
+
+    private static boolean nameEquals(ByteBuffer map, int pos, byte[] name) {
+        if (map.getShort(pos) != name.length) return false;
+        for (int i = 0; i < name.length; i++) {
+            if (map.get(pos + 2 + i) != name[i]) return false;
+        }
+        return true;
+    }
+
+    private static int heapStart(int slotCount) {
+        return HEADER + slotCount * SLOT;
+    }
+
+    // Power of two that keeps the table at most a quarter full after a rebuild
+    private static int tableSize(int users) {
+        int slots = MIN_SLOTS;
+        while (slots < users * 4) slots *= 2;
+        return slots;
+    }
+
+    // Write a fresh table next to the index and swap it in, so a crash leaves the old or the new one
+    private void replace(List<String> names) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        write(tmp, names, tableSize(names.size()));
+        if (!tmp.renameTo(file)) throw new IOException("Could not replace " + FILE_NAME);
+    }
+
+    private static void write(File target, List<String> names, int slotCount) throws IOException {
+        int nameBytes = 0;
+        for (String n : names) nameBytes += 2 + n.getBytes(StandardCharsets.UTF_8).length;
+        // Room for as many names again before the next rebuild
+        int heapCapacity = Math.max(slotCount * HEAP_PER_SLOT, nameBytes * 2);
+        ByteBuffer buffer = ByteBuffer.allocate(heapStart(slotCount) + heapCapacity);
+        int heapUsed = 0;
+        int users = 0;
+        for (String username : names) {
+            byte[] name = username.getBytes(StandardCharsets.UTF_8);
+            int hash = username.hashCode();
+            int slot = hash & (slotCount - 1);
+            boolean duplicate = false;
+            for (int ref; (ref = buffer.getInt(HEADER + slot * SLOT + 4)) != 0; slot = (slot + 1) & (slotCount - 1)) {
+                if (buffer.getInt(HEADER + slot * SLOT) == hash
+                        && nameEquals(buffer, heapStart(slotCount) + ref - 1, name)) {
+                    duplicate = true;
+                    break;
+                }
+            }
+            if (duplicate) continue;
+            if (heapUsed + 2 + name.length > heapCapacity) {
+                throw new IOException("User index heap overflow");
+            }
+            buffer.putShort(heapStart(slotCount) + heapUsed, (short) name.length);
+            for (int i = 0; i < name.length; i++) buffer.put(heapStart(slotCount) + heapUsed + 2 + i, name[i]);
+            buffer.putInt(HEADER + slot * SLOT, hash);
+            buffer.putInt(HEADER + slot * SLOT + 4, heapUsed + 1);
+            heapUsed += 2 + name.length;
+            users++;
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, slotCount);
+        buffer.putInt(8, users);
+        buffer.putInt(12, heapUsed);
+
+        try (RandomAccessFile raf = new RandomAccessFile(target, "rw");
+             FileChannel channel = raf.getChannel()) {
+            channel.truncate(0);
+            buffer.rewind();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+    }
+
+    private List<String> readLegacyFile() throws IOException {
+        List<String> names = new ArrayList<>();
+        if (!legacyFile.exists()) return names;
+        try (BufferedReader br = new BufferedReader(new FileReader(legacyFile, StandardCharsets.UTF_8))) {
+            for (String line; (line = br.readLine()) != null; ) {
+                if (!line.isEmpty()) names.add(line);
+            }
+        }
+        return names;
+    }
+}
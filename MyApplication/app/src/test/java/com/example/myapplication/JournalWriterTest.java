@@ -0,0 +1,132 @@
+package com.example.myapplication;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for JournalWriter; callbacks run directly on the writer thread.
+ */
+public class JournalWriterTest {
+
+    /** Records every write call it gets */
+    private static class RecordingSink<T> implements JournalWriter.Sink<T> {
+        final List<List<T>> writes = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void write(List<T> records) throws Exception {
+            writes.add(new ArrayList<>(records));
+        }
+
+        List<T> all() {
+            List<T> all = new ArrayList<>();
+            synchronized (writes) {
+                for (List<T> w : writes) all.addAll(w);
+            }
+            return all;
+        }
+    }
+
+    private static JournalWriter writer(int maxBatch, long maxDelayMs) {
+        return new JournalWriter(maxBatch, maxDelayMs, Runnable::run);
+    }
+
+    @Test
+    public void queuedRecords_areGroupedUpToMaxBatch() throws Exception {
+        JournalWriter journal = writer(4, 1_000);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink<Integer> sink = new RecordingSink<Integer>() {
+            @Override
+            public void write(List<Integer> records) throws Exception {
+                super.write(records);
+                release.await();
+            }
+        };
+        // The first group blocks the writer so the rest queue up behind it
+        for (int i = 0; i < 10; i++) journal.append(sink, i, null);
+        release.countDown();
+        journal.flush();
+
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), sink.all());
+        for (List<Integer> w : sink.writes) assertTrue(w.size() <= 4);
+        assertTrue("expected grouped writes, got " + sink.writes, sink.writes.size() <= 4);
+    }
+
+    @Test
+    public void lonelyRecord_isWrittenAfterMaxDelay() throws Exception {
+        JournalWriter journal = writer(64, 20);
+        CountDownLatch done = new CountDownLatch(1);
+        RecordingSink<String> sink = new RecordingSink<>();
+        journal.append(sink, "a", error -> done.countDown());
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(Collections.singletonList("a")), sink.writes);
+    }
+
+    @Test
+    public void flush_waitsForEverythingQueuedBeforeIt() throws Exception {
+        JournalWriter journal = writer(64, 10_000);
+        RecordingSink<Integer> sink = new RecordingSink<>();
+        AtomicInteger completed = new AtomicInteger();
+        for (int i = 0; i < 100; i++) journal.append(sink, i, error -> completed.incrementAndGet());
+
+        // Without the barrier the 10 s delay would hold the last group back
+        assertTrue(journal.flush(2, TimeUnit.SECONDS));
+        assertEquals(100, sink.all().size());
+        assertEquals(100, completed.get());
+    }
+
+    @Test
+    public void timedFlush_givesUpOnABlockedSink() throws Exception {
+        JournalWriter journal = writer(64, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        journal.append(records -> release.await(), "stuck", null);
+
+        assertFalse(journal.flush(50, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(journal.flush(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void failedWrite_failsItsGroupOnly() throws Exception {
+        JournalWriter journal = writer(64, 0);
+        IOException failure = new IOException("disk full");
+        List<Exception> failedResults = Collections.synchronizedList(new ArrayList<>());
+        List<Exception> okResults = Collections.synchronizedList(new ArrayList<>());
+        RecordingSink<String> good = new RecordingSink<>();
+
+        journal.append(records -> { throw failure; }, "x", failedResults::add);
+        journal.flush();
+        journal.append(good, "y", okResults::add);
+        journal.flush();
+
+        assertEquals(Collections.singletonList(failure), failedResults);
+        assertEquals(Collections.singletonList((Exception) null), okResults);
+        assertEquals(Collections.singletonList("y"), good.all());
+    }
+
+    @Test
+    public void recordsForDifferentSinks_keepQueueOrder() throws Exception {
+        JournalWriter journal = writer(64, 1_000);
+        List<String> log = Collections.synchronizedList(new ArrayList<>());
+        JournalWriter.Sink<String> a = records -> log.add("a" + records);
+        JournalWriter.Sink<String> b = records -> log.add("b" + records);
+
+        journal.append(a, "1", null);
+        journal.append(a, "2", null);
+        journal.append(b, "3", null);
+        journal.append(a, "4", null);
+        journal.flush();
+
+        assertEquals(Arrays.asList("a[1, 2]", "b[3]", "a[4]"), log);
+    }
+}
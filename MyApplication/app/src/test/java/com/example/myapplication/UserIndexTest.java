@@ -0,0 +1,94 @@
+package com.example.myapplication;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local tests for UserIndex against a temporary files directory.
+ */
+public class UserIndexTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void emptyIndex_hasNoUsers() throws IOException {
+        UserIndex index = new UserIndex(tmp.getRoot());
+        assertEquals(0, index.size());
+        assertFalse(index.contains("alice"));
+        assertTrue(new File(tmp.getRoot(), "users.idx").exists());
+    }
+
+    @Test
+    public void legacyFile_isImportedAndRenamed() throws IOException {
+        File legacy = new File(tmp.getRoot(), "users.txt");
+        Files.write(legacy.toPath(), Arrays.asList("alice", "", "bob", "alice", "zoë"), StandardCharsets.UTF_8);
+
+        UserIndex index = new UserIndex(tmp.getRoot());
+
+        assertEquals(3, index.size());
+        assertTrue(index.contains("alice"));
+        assertTrue(index.contains("bob"));
+        assertTrue(index.contains("zoë"));
+        assertFalse(index.contains("carol"));
+        assertEquals(Arrays.asList("alice", "bob", "zoë"), index.names());
+        assertFalse(legacy.exists());
+        assertTrue(new File(tmp.getRoot(), "users.txt.migrated").exists());
+    }
+
+    @Test
+    public void unreadableLegacyFile_writesNothing() {
+        // A directory in place of users.txt makes the read fail
+        File legacy = new File(tmp.getRoot(), "users.txt");
+        assertTrue(legacy.mkdir());
+
+        try {
+            new UserIndex(tmp.getRoot());
+            fail("Expected the import to fail");
+        } catch (IOException expected) {
+            // retried on the next open
+        }
+
+        assertTrue(legacy.exists());
+        assertFalse(new File(tmp.getRoot(), "users.idx").exists());
+        assertFalse(new File(tmp.getRoot(), "users.txt.migrated").exists());
+    }
+
+    @Test
+    public void add_rejectsDuplicates() throws IOException {
+        UserIndex index = new UserIndex(tmp.getRoot());
+        assertTrue(index.add("alice"));
+        assertFalse(index.add("alice"));
+        assertTrue(index.add("Alice"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void manyUsers_surviveRebuildsAndReopen() throws IOException {
+        UserIndex index = new UserIndex(tmp.getRoot());
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i <= 5_000; i++) {
+            String name = "user" + i;
+            names.add(name);
+            assertTrue(index.add(name));
+        }
+        assertEquals(5_001, index.size());
+
+        UserIndex reopened = new UserIndex(tmp.getRoot());
+        assertEquals(5_001, reopened.size());
+        for (String name : names) assertTrue(name, reopened.contains(name));
+        assertFalse(reopened.contains("user5001"));
+        assertEquals(names, reopened.names());
+    }
+}
@@ -0,0 +1,46 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// The desktop classifier sits at the repository root and ImageTensors lives in the app.
+// Copy those plain-JVM sources in so the benchmarks measure the shipped code, not a copy.
+val syncHotPathSources by tasks.registering(Sync::class) {
+    from(rootDir.parentFile) {
+        include("*.java")
+        exclude("CampusCycleDBSetup.java")
+    }
+    from(project(":app").file("src/main/java")) {
+        include("com/example/myapplication/ImageTensors.java")
+    }
+    into(layout.buildDirectory.dir("generated/hotpath"))
+}
+
+sourceSets {
+    main {
+        java.srcDir(syncHotPathSources)
+    }
+}
+
+dependencies {
+    implementation(libs.onnxruntime)
+    implementation(libs.opencv.desktop)
+    testImplementation(libs.junit)
+}
+
+// ./gradlew :benchmark:jmh
+// Results land in build/results/jmh/results.json; keep them to diff against later runs.
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
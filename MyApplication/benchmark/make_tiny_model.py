@@ -0,0 +1,86 @@
+# Writes src/jmh/resources/tiny_classifier.onnx, the model bundled with the JMH benchmarks.
+#
+# It has the same interface as model.onnx (input "input" [N,3,224,224] -> output "output" [N,6])
+# but is only GlobalAveragePool -> Flatten -> Gemm, so benchmarks run without the real weights.
+# The protobuf is encoded by hand so no onnx/numpy install is needed.
+#
+# Usage: python make_tiny_model.py [output_path]
+import random
+import struct
+import sys
+
+OUTPUT_PATH = sys.argv[1] if len(sys.argv) > 1 else "src/jmh/resources/tiny_classifier.onnx"
+NUM_CLASSES = 6
+IMG_SIZE = 224
+
+
+# -------- PROTOBUF ENCODING --------
+def varint(n):
+    out = b""
+    while True:
+        b = n & 0x7F
+        n >>= 7
+        if n:
+            out += bytes([b | 0x80])
+        else:
+            return out + bytes([b])
+
+
+def field_varint(field, n):
+    return varint(field << 3) + varint(n)
+
+
+def field_bytes(field, data):
+    if isinstance(data, str):
+        data = data.encode()
+    return varint((field << 3) | 2) + varint(len(data)) + data
+
+
+# -------- ONNX MESSAGES --------
+def dimension(d):
+    # TensorShapeProto.Dimension: dim_value = 1, dim_param = 2
+    return field_bytes(1, field_varint(1, d) if isinstance(d, int) else field_bytes(2, d))
+
+
+def value_info(name, shape):
+    shape_proto = b"".join(dimension(d) for d in shape)
+    tensor_type = field_varint(1, 1) + field_bytes(2, shape_proto)  # elem_type FLOAT
+    return field_bytes(1, name) + field_bytes(2, field_bytes(1, tensor_type))
+
+
+def initializer(name, dims, values):
+    return (b"".join(field_varint(1, d) for d in dims) + field_varint(2, 1) + field_bytes(8, name)
+            + field_bytes(9, struct.pack("<%df" % len(values), *values)))
+
+
+def int_attribute(name, value):
+    return field_bytes(5, field_bytes(1, name) + field_varint(3, value) + field_varint(20, 2))
+
+
+def node(inputs, outputs, op_type, attributes=b""):
+    return (b"".join(field_bytes(1, i) for i in inputs) + b"".join(field_bytes(2, o) for o in outputs)
+            + field_bytes(4, op_type) + attributes)
+
+
+# -------- GRAPH --------
+random.seed(1)
+weights = [random.uniform(-2, 2) for _ in range(NUM_CLASSES * 3)]
+bias = [random.uniform(-0.5, 0.5) for _ in range(NUM_CLASSES)]
+
+graph = (field_bytes(1, node(["input"], ["pooled"], "GlobalAveragePool"))
+         + field_bytes(1, node(["pooled"], ["flat"], "Flatten", int_attribute("axis", 1)))
+         + field_bytes(1, node(["flat", "W", "B"], ["output"], "Gemm", int_attribute("transB", 1)))
+         + field_bytes(2, "tiny_garbage_classifier")
+         + field_bytes(5, initializer("W", [NUM_CLASSES, 3], weights))
+         + field_bytes(5, initializer("B", [NUM_CLASSES], bias))
+         + field_bytes(11, value_info("input", ["N", 3, IMG_SIZE, IMG_SIZE]))
+         + field_bytes(12, value_info("output", ["N", NUM_CLASSES])))
+
+model = (field_varint(1, 7)                                    # ir_version
+         + field_bytes(2, "campus-cycle")                      # producer_name
+         + field_bytes(7, graph)
+         + field_bytes(8, field_bytes(1, "") + field_varint(2, 13)))  # opset 13
+
+with open(OUTPUT_PATH, "wb") as f:
+    f.write(model)
+print(f"✅ Wrote {OUTPUT_PATH} ({len(model)} bytes)")
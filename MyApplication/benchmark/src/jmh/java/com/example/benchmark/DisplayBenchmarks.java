@@ -0,0 +1,44 @@
+package com.example.benchmark;
+
+import org.opencv.core.Mat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/** Copying a frame into FrameSurface at common webcam resolutions; steady state should allocate nothing. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class DisplayBenchmarks {
+
+    @Param({"640x480", "1280x720", "1920x1080"})
+    public String resolution;
+
+    private Mat frame;
+    private Object surface;
+
+    @Setup
+    public void setUp() {
+        String[] wh = resolution.split("x");
+        frame = Frames.bgr(Integer.parseInt(wh[0]), Integer.parseInt(wh[1]));
+        surface = HotPath.newSurface();
+    }
+
+    @TearDown
+    public void tearDown() {
+        frame.release();
+    }
+
+    @Benchmark
+    public void present() {
+        HotPath.present(surface, frame);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.benchmark;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-image latency from a raw 640x480 frame to a label string, following the
+ * GarbageClassifier loop: resize, preprocess, run, softmax/argMax.
+ *
+ * Uses the bundled tiny model by default, which isolates the Java-side overhead.
+ * To time the real model, run the JMH jar with a model path:
+ *   ./gradlew :benchmark:jmhJar
+ *   java -jar benchmark/build/libs/benchmark-jmh.jar EndToEnd -p modelPath=../model.onnx
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class EndToEndBenchmark {
+
+    @Param({""})
+    public String modelPath;
+
+    private static final long[] SHAPE = {1, 3, Frames.IMG_SIZE, Frames.IMG_SIZE};
+
+    private OrtEnvironment env;
+    private OrtSession session;
+    private AutoCloseable inference;
+    private Object preprocessor;
+    private Mat frame;
+    private Size inputSize;
+
+    @Setup
+    public void setUp() throws Exception {
+        frame = Frames.bgr(640, 480);
+        inputSize = new Size(Frames.IMG_SIZE, Frames.IMG_SIZE);
+        env = OrtEnvironment.getEnvironment();
+        session = Models.open(env, modelPath);
+        inference = HotPath.newInferenceSession(env, session);
+        preprocessor = HotPath.newPreprocessor(Frames.IMG_SIZE);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        inference.close();
+        session.close();
+        frame.release();
+    }
+
+    @Benchmark
+    public String classifyFrame() {
+        Mat resized = new Mat();
+        Imgproc.resize(frame, resized, inputSize);
+        HotPath.writeTensor(preprocessor, resized, HotPath.input(inference, SHAPE), 0);
+        resized.release();
+        float[][] output = HotPath.run(inference, SHAPE);
+        return HotPath.formatLabel(output[0]);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.benchmark;
+
+import nu.pattern.OpenCV;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/** Synthetic camera frames with a fixed seed so every run sees the same pixels. */
+final class Frames {
+
+    static final int IMG_SIZE = 224;
+
+    static {
+        OpenCV.loadLocally();
+    }
+
+    private Frames() {
+    }
+
+    static Mat random(int width, int height, int type) {
+        Mat mat = new Mat(height, width, type);
+        Core.setRNGSeed(42);
+        Core.randu(mat, 0, 256);
+        return mat;
+    }
+
+    static Mat bgr(int width, int height) {
+        return random(width, height, CvType.CV_8UC3);
+    }
+}
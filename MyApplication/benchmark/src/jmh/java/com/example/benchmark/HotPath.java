@@ -0,0 +1,173 @@
+package com.example.benchmark;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import nu.pattern.OpenCV;
+import org.opencv.core.Mat;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.FloatBuffer;
+
+/**
+ * Entry points into the desktop classifier for the benchmarks.
+ *
+ * GarbageClassifier and its helpers live in the default package, which cannot be
+ * imported from a named package (and JMH refuses benchmarks in the default package),
+ * so they are reached through method handles. The handles are static finals, which
+ * the JIT constant-folds, so the indirection does not show up in the measurements.
+ */
+final class HotPath {
+
+    private static final MethodHandle SOFTMAX;
+    private static final MethodHandle ARG_MAX;
+    private static final MethodHandle FORMAT_LABEL;
+    private static final MethodHandle NEW_SURFACE;
+    private static final MethodHandle PRESENT;
+    private static final MethodHandle NEW_PREPROCESSOR;
+    private static final MethodHandle TO_TENSOR;
+    private static final MethodHandle WRITE_TENSOR;
+    private static final MethodHandle NEW_INFERENCE_SESSION;
+    private static final MethodHandle INPUT;
+    private static final MethodHandle RUN;
+
+    static {
+        OpenCV.loadLocally();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> classifier = Class.forName("GarbageClassifier");
+            Class<?> preprocessor = Class.forName("TensorPreprocessor");
+            Class<?> session = Class.forName("InferenceSession");
+            Class<?> surface = Class.forName("FrameSurface");
+            MethodHandles.Lookup classifierLookup = MethodHandles.privateLookupIn(classifier, lookup);
+
+            SOFTMAX = classifierLookup.findStatic(classifier, "softmax",
+                    MethodType.methodType(float[].class, float[].class));
+            ARG_MAX = classifierLookup.findStatic(classifier, "argMax",
+                    MethodType.methodType(int.class, float[].class));
+            FORMAT_LABEL = classifierLookup.findStatic(classifier, "formatLabel",
+                    MethodType.methodType(String.class, float[].class));
+
+            NEW_SURFACE = lookup.findConstructor(surface, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            PRESENT = lookup.findVirtual(surface, "present", MethodType.methodType(void.class, Mat.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Mat.class));
+
+            NEW_PREPROCESSOR = lookup.findConstructor(preprocessor, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            TO_TENSOR = lookup.findVirtual(preprocessor, "toTensor", MethodType.methodType(FloatBuffer.class, Mat.class))
+                    .asType(MethodType.methodType(FloatBuffer.class, Object.class, Mat.class));
+            WRITE_TENSOR = lookup.findVirtual(preprocessor, "writeTensor",
+                            MethodType.methodType(void.class, Mat.class, FloatBuffer.class, int.class))
+                    .asType(MethodType.methodType(void.class, Object.class, Mat.class, FloatBuffer.class, int.class));
+
+            NEW_INFERENCE_SESSION = lookup.findConstructor(session,
+                            MethodType.methodType(void.class, OrtEnvironment.class, OrtSession.class))
+                    .asType(MethodType.methodType(AutoCloseable.class, OrtEnvironment.class, OrtSession.class));
+            INPUT = lookup.findVirtual(session, "input", MethodType.methodType(FloatBuffer.class, long[].class))
+                    .asType(MethodType.methodType(FloatBuffer.class, Object.class, long[].class));
+            RUN = lookup.findVirtual(session, "run", MethodType.methodType(float[][].class, long[].class))
+                    .asType(MethodType.methodType(float[][].class, Object.class, long[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private HotPath() {
+    }
+
+    static float[] softmax(float[] logits) {
+        try {
+            return (float[]) SOFTMAX.invokeExact(logits);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static int argMax(float[] values) {
+        try {
+            return (int) ARG_MAX.invokeExact(values);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static String formatLabel(float[] logits) {
+        try {
+            return (String) FORMAT_LABEL.invokeExact(logits);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static Object newSurface() {
+        try {
+            return (Object) NEW_SURFACE.invokeExact();
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static void present(Object surface, Mat frame) {
+        try {
+            PRESENT.invokeExact(surface, frame);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static Object newPreprocessor(int size) {
+        try {
+            return (Object) NEW_PREPROCESSOR.invokeExact(size);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static FloatBuffer toTensor(Object preprocessor, Mat resized) {
+        try {
+            return (FloatBuffer) TO_TENSOR.invokeExact(preprocessor, resized);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static void writeTensor(Object preprocessor, Mat resized, FloatBuffer dst, int offset) {
+        try {
+            WRITE_TENSOR.invokeExact(preprocessor, resized, dst, offset);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static AutoCloseable newInferenceSession(OrtEnvironment env, OrtSession session) {
+        try {
+            return (AutoCloseable) NEW_INFERENCE_SESSION.invokeExact(env, session);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static FloatBuffer input(Object inference, long[] shape) {
+        try {
+            return (FloatBuffer) INPUT.invokeExact(inference, shape);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    static float[][] run(Object inference, long[] shape) {
+        try {
+            return (float[][]) RUN.invokeExact(inference, shape);
+        } catch (Throwable t) {
+            throw propagate(t);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable t) {
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new RuntimeException(t);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.benchmark;
+
+import org.opencv.core.Mat;
+
+/**
+ * The Mat-based preprocessing MainActivity used before InferenceService read Bitmap pixels
+ * straight into the input buffer. Kept here only as the baseline for PreprocessBenchmarks.
+ */
+final class LegacyTensors {
+
+    private LegacyTensors() {
+    }
+
+    /** Normalize a size x size RGB Mat into a [1][3][size][size] tensor */
+    static float[][][][] fromRgbMat(Mat mat, int size) {
+        float[][][][] input = new float[1][3][size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double[] pixel = mat.get(y, x);
+                input[0][0][y][x] = (float) ((pixel[0] / 255.0 - 0.485) / 0.229);
+                input[0][1][y][x] = (float) ((pixel[1] / 255.0 - 0.456) / 0.224);
+                input[0][2][y][x] = (float) ((pixel[2] / 255.0 - 0.406) / 0.225);
+            }
+        }
+        return input;
+    }
+
+    /** Flatten a [1][3][size][size] tensor into a CHW float array */
+    static float[] flatten(float[][][][] input, int size) {
+        float[] flat = new float[3 * size * size];
+        int idx = 0;
+        for (int c = 0; c < 3; c++)
+            for (int y = 0; y < size; y++)
+                for (int x = 0; x < size; x++)
+                    flat[idx++] = input[0][c][y][x];
+        return flat;
+    }
+}
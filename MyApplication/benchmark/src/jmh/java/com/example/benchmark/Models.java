@@ -0,0 +1,27 @@
+package com.example.benchmark;
+
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Opens the model under test: the bundled tiny model, or a real one when a path is given. */
+final class Models {
+
+    static final String BUNDLED = "tiny_classifier.onnx";
+
+    private Models() {
+    }
+
+    static OrtSession open(OrtEnvironment env, String path) throws IOException, OrtException {
+        if (path != null && !path.isEmpty()) {
+            return env.createSession(path, new OrtSession.SessionOptions());
+        }
+        try (InputStream in = Models.class.getClassLoader().getResourceAsStream(BUNDLED)) {
+            if (in == null) throw new IOException("Missing bundled model " + BUNDLED);
+            return env.createSession(in.readAllBytes(), new OrtSession.SessionOptions());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** softmax / argMax over one row of six-class logits. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class PostprocessBenchmarks {
+
+    private float[] logits;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        logits = new float[6];
+        for (int i = 0; i < logits.length; i++) logits[i] = random.nextFloat() * 10 - 5;
+    }
+
+    @Benchmark
+    public float[] softmax() {
+        return HotPath.softmax(logits);
+    }
+
+    @Benchmark
+    public int argMax() {
+        return HotPath.argMax(logits);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.benchmark;
+
+import com.example.myapplication.ImageTensors;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Per-op cost of turning a 224x224 frame into model input, desktop and Android paths. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PreprocessBenchmarks {
+
+    private Mat bgr;
+    private Mat rgb;
+    private Object preprocessor;
+    private float[][][][] tensor4d;
+    private Mat rgba;
+    private Mat rgbScratch;
+    private int[] argb;
+    private FloatBuffer input;
+
+    @Setup
+    public void setUp() {
+        int size = Frames.IMG_SIZE;
+        bgr = Frames.bgr(size, size);
+        rgb = Frames.random(size, size, CvType.CV_8UC3);
+        preprocessor = HotPath.newPreprocessor(size);
+        tensor4d = LegacyTensors.fromRgbMat(rgb, size);
+        rgba = Frames.random(size, size, CvType.CV_8UC4);
+        rgbScratch = new Mat();
+        Random random = new Random(42);
+        argb = new int[size * size];
+        for (int i = 0; i < argb.length; i++) argb[i] = 0xFF000000 | random.nextInt(1 << 24);
+        input = ByteBuffer.allocateDirect(3 * size * size * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        bgr.release();
+        rgb.release();
+        rgba.release();
+        rgbScratch.release();
+    }
+
+    /** GarbageClassifier: BGR Mat to CHW tensor (TensorPreprocessor). */
+    @Benchmark
+    public FloatBuffer matToTensor() {
+        return HotPath.toTensor(preprocessor, bgr);
+    }
+
+    /** Former MainActivity.preprocess after bitmapToMat/cvtColor: RGB Mat to float[1][3][224][224]. */
+    @Benchmark
+    public float[][][][] androidPreprocess() {
+        return LegacyTensors.fromRgbMat(rgb, Frames.IMG_SIZE);
+    }
+
+    /** Former MainActivity.runModel: float[1][3][224][224] to flat CHW array. */
+    @Benchmark
+    public float[] androidFlatten() {
+        return LegacyTensors.flatten(tensor4d, Frames.IMG_SIZE);
+    }
+
+    /**
+     * The former Android path after bitmapToMat, as a whole: RGBA to RGB, per-pixel
+     * Mat.get into float[1][3][224][224], flatten, copy into the session's direct buffer.
+     */
+    @Benchmark
+    public FloatBuffer androidMatPath() {
+        Imgproc.cvtColor(rgba, rgbScratch, Imgproc.COLOR_RGBA2RGB);
+        input.clear();
+        input.put(LegacyTensors.flatten(LegacyTensors.fromRgbMat(rgbScratch, Frames.IMG_SIZE), Frames.IMG_SIZE));
+        return input;
+    }
+
+    /** InferenceService: Bitmap.getPixels output through the lookup tables into the direct buffer. */
+    @Benchmark
+    public FloatBuffer androidPixelPath() {
+        input.clear();
+        ImageTensors.writeArgb(argb, Frames.IMG_SIZE, input);
+        return input;
+    }
+}
@@ -0,0 +1,75 @@
+import nu.pattern.OpenCV;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.videoio.VideoWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs VideoFileClassifier end to end on a generated clip with the benchmark's bundled tiny model.
+ */
+public class VideoFileClassifierTest {
+
+    private static final String MODEL = "src/jmh/resources/tiny_classifier.onnx";
+    private static final int FRAMES = 40;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @BeforeClass
+    public static void loadOpenCv() {
+        OpenCV.loadLocally();
+    }
+
+    private String clip(int frames) throws IOException {
+        File file = tmp.newFile("clip.avi");
+        VideoWriter writer = new VideoWriter(file.getPath(), VideoWriter.fourcc('M', 'J', 'P', 'G'), 30, new Size(160, 120));
+        assumeTrue("no MJPG encoder", writer.isOpened());
+        Mat frame = new Mat(120, 160, CvType.CV_8UC3);
+        for (int i = 0; i < frames; i++) {
+            frame.setTo(new Scalar(i % 256, 255 - i % 256, 128));
+            writer.write(frame);
+        }
+        frame.release();
+        writer.release();
+        return file.getPath();
+    }
+
+    @Test(timeout = 60_000)
+    public void csv_hasOneLinePerFrame() throws Exception {
+        File out = new File(tmp.getRoot(), "out.csv");
+        VideoFileClassifier.run(clip(FRAMES), out.getPath(), MODEL, 8, 2);
+
+        List<String> lines = Files.readAllLines(out.toPath(), StandardCharsets.UTF_8);
+        assertEquals(FRAMES + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("frame,time_ms,label,confidence"));
+        for (int i = 0; i < FRAMES; i++) assertTrue(lines.get(i + 1), lines.get(i + 1).startsWith(i + ","));
+    }
+
+    @Test(timeout = 60_000)
+    public void failedOutputWrite_endsTheRunWithTheError() throws Exception {
+        File full = new File("/dev/full");
+        assumeTrue("needs /dev/full", full.exists());
+        // Enough output to overflow the writer's buffer mid-run; single-frame batches with one in
+        // flight then fill the pending queue at once if the writer stops draining
+        try {
+            VideoFileClassifier.run(clip(400), full.getPath(), MODEL, 1, 1);
+            fail("Expected the write to fail");
+        } catch (IOException expected) {
+            // the run returns instead of hanging on a full queue
+        }
+    }
+}
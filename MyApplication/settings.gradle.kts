@@ -22,3 +22,4 @@ dependencyResolutionManagement {
 rootProject.name = "My Application"
 include(":app")
 include(":sdk")
+include(":benchmark")
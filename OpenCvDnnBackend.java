@@ -0,0 +1,125 @@
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfInt;
+import org.opencv.dnn.Dnn;
+import org.opencv.dnn.Net;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the ONNX model with OpenCV's own DNN module instead of ONNX Runtime.
+ *
+ * As with InferenceSession, each input shape gets one direct buffer; here the input
+ * blob is a 4-D Mat header over that same memory, so filling the buffer fills the
+ * blob without a copy.
+ */
+public class OpenCvDnnBackend implements InferenceBackend {
+
+    private static final class Slot {
+        final long[] shape;
+        final FloatBuffer buffer;
+        final Mat storage;
+        final Mat blob;
+
+        Slot(long[] shape, FloatBuffer buffer, Mat storage, Mat blob) {
+            this.shape = shape;
+            this.buffer = buffer;
+            this.storage = storage;
+            this.blob = blob;
+        }
+    }
+
+    private final Net net;
+    private final List<Slot> slots = new ArrayList<>();
+    private long[] lastShape;
+
+    public OpenCvDnnBackend(String modelPath) {
+        this.net = Dnn.readNetFromONNX(modelPath);
+        if (net.empty()) throw new IllegalArgumentException("OpenCV DNN could not load " + modelPath);
+        net.setPreferableBackend(Dnn.DNN_BACKEND_OPENCV);
+        net.setPreferableTarget(Dnn.DNN_TARGET_CPU);
+    }
+
+    @Override
+    public String name() {
+        return "opencv-dnn";
+    }
+
+    @Override
+    public FloatBuffer input(long... shape) {
+        FloatBuffer buffer = slot(shape).buffer;
+        buffer.rewind();
+        return buffer;
+    }
+
+    @Override
+    public float[][] run(long... shape) {
+        Slot slot = slot(shape);
+        net.setInput(slot.blob);
+        lastShape = slot.shape;
+        Mat out = net.forward();
+        Mat matrix = null;
+        try {
+            int rows = (int) shape[0];
+            int cols = (int) (out.total() / rows);
+            float[] flat = new float[rows * cols];
+            matrix = out.reshape(1, rows);
+            matrix.get(0, 0, flat);
+            float[][] result = new float[rows][];
+            for (int i = 0; i < rows; i++) result[i] = Arrays.copyOfRange(flat, i * cols, (i + 1) * cols);
+            return result;
+        } finally {
+            if (matrix != null) matrix.release();
+            out.release();
+        }
+    }
+
+    private Slot slot(long[] shape) {
+        for (Slot s : slots) {
+            if (Arrays.equals(s.shape, shape)) return s;
+        }
+
+        int[] dims = new int[shape.length];
+        int elements = 1;
+        for (int i = 0; i < shape.length; i++) {
+            dims[i] = Math.toIntExact(shape[i]);
+            elements *= dims[i];
+        }
+        ByteBuffer bytes = ByteBuffer.allocateDirect(elements * Float.BYTES).order(ByteOrder.nativeOrder());
+        // 2-D Mat over the buffer, then an N-D header on the same data for setInput()
+        int cols = dims[dims.length - 1];
+        Mat storage = new Mat(elements / cols, cols, CvType.CV_32F, bytes);
+        Mat blob = storage.reshape(1, dims);
+        Slot s = new Slot(shape.clone(), bytes.asFloatBuffer(), storage, blob);
+        slots.add(s);
+        return s;
+    }
+
+    /** Weights plus intermediate blobs for the last shape run, as estimated by OpenCV. */
+    @Override
+    public long nativeBytesInUse() {
+        if (lastShape == null) return 0;
+        int[] dims = new int[lastShape.length];
+        for (int i = 0; i < dims.length; i++) dims[i] = (int) lastShape[i];
+        long[] weights = new long[1];
+        long[] blobs = new long[1];
+        MatOfInt shape = new MatOfInt(dims);
+        net.getMemoryConsumption(shape, weights, blobs);
+        shape.release();
+        return weights[0] + blobs[0];
+    }
+
+    @Override
+    public void close() {
+        for (Slot s : slots) {
+            s.blob.release();
+            s.storage.release();
+        }
+        slots.clear();
+    }
+}
@@ -0,0 +1,69 @@
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Compares the old per-pixel matToTensor against TensorPreprocessor on a synthetic frame
+ * and prints frames per second for each.
+ *
+ * Usage: java PreprocessBenchmark [iterations]
+ */
+public class PreprocessBenchmark {
+
+    private static final int IMG_SIZE = 224;
+
+    public static void main(String[] args) {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+
+        Mat frame = new Mat(IMG_SIZE, IMG_SIZE, CvType.CV_8UC3);
+        Core.randu(frame, 0, 256);
+        TensorPreprocessor preprocessor = new TensorPreprocessor(IMG_SIZE);
+
+        // Both paths must agree before their speed means anything
+        float[] expected = legacyMatToTensor(frame);
+        FloatBuffer actual = preprocessor.toTensor(frame);
+        float maxDiff = 0f;
+        for (int i = 0; i < expected.length; i++) {
+            maxDiff = Math.max(maxDiff, Math.abs(expected[i] - actual.get(i)));
+        }
+        System.out.printf("Max abs difference: %.3e%n", maxDiff);
+
+        double before = measure(iterations, () -> legacyMatToTensor(frame));
+        double after = measure(iterations, () -> preprocessor.toTensor(frame));
+
+        System.out.printf("Before (per-pixel get): %8.1f FPS%n", before);
+        System.out.printf("After  (bulk get + LUT): %8.1f FPS%n", after);
+        System.out.printf("Speedup: %.1fx%n", after / before);
+        frame.release();
+    }
+
+    private static double measure(int iterations, Runnable op) {
+        for (int i = 0; i < iterations / 5 + 1; i++) op.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) op.run();
+        long elapsed = System.nanoTime() - start;
+        return iterations / (elapsed / 1e9);
+    }
+
+    // Preprocessing as GarbageClassifier did it before TensorPreprocessor, kept as the baseline
+    private static float[] legacyMatToTensor(Mat mat) {
+        float[] data = new float[3 * IMG_SIZE * IMG_SIZE];
+        int idx = 0;
+        float[] mean = {0.485f,0.456f,0.406f};
+        float[] std = {0.229f,0.224f,0.225f};
+
+        for (int y=0; y<IMG_SIZE; y++) {
+            for (int x=0; x<IMG_SIZE; x++) {
+                double[] px = mat.get(y,x);
+                data[idx] = (float)((px[2]/255.0 - mean[0])/std[0]);
+                data[idx + IMG_SIZE*IMG_SIZE] = (float)((px[1]/255.0 - mean[1])/std[1]);
+                data[idx + 2*IMG_SIZE*IMG_SIZE] = (float)((px[0]/255.0 - mean[2])/std[2]);
+                idx++;
+            }
+        }
+        return data;
+    }
+}
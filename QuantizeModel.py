@@ -0,0 +1,61 @@
+import os
+import random
+
+import numpy as np
+from PIL import Image
+from torchvision import transforms
+from onnxruntime.quantization import CalibrationDataReader, QuantFormat, QuantType, quantize_static
+from onnxruntime.quantization.shape_inference import quant_pre_process
+
+# -------- SETTINGS --------
+FP32_MODEL_PATH = "model.onnx"
+PREPROCESSED_PATH = "model_prep.onnx"
+INT8_MODEL_PATH = "model_int8.onnx"
+DATA_DIR = r"Garbage classification\Garbage classification"
+CALIBRATION_SPLIT = "one-indexed-files-notrash_train.txt"
+CALIBRATION_IMAGES = 200
+IMG_SIZE = 224
+# Class numbering used by the split files
+LIST_ORDER = ["glass", "paper", "cardboard", "plastic", "metal", "trash"]
+
+# Same preprocessing as training/validation
+transform = transforms.Compose([
+    transforms.Resize((IMG_SIZE, IMG_SIZE)),
+    transforms.ToTensor(),
+    transforms.Normalize(mean=[0.485, 0.456, 0.406],
+                         std=[0.229, 0.224, 0.225])
+])
+
+
+# -------- CALIBRATION DATA --------
+class SplitCalibrationReader(CalibrationDataReader):
+    def __init__(self, split_file, count):
+        with open(split_file) as f:
+            lines = [line.split() for line in f if line.strip()]
+        random.seed(0)
+        random.shuffle(lines)
+        self.paths = [os.path.join(DATA_DIR, LIST_ORDER[int(label) - 1], name) for name, label in lines[:count]]
+        self.index = 0
+
+    def get_next(self):
+        while self.index < len(self.paths):
+            path = self.paths[self.index]
+            self.index += 1
+            if os.path.isfile(path):
+                img = Image.open(path).convert("RGB")
+                return {"input": transform(img).unsqueeze(0).numpy().astype(np.float32)}
+        return None
+
+
+# -------- QUANTIZE --------
+# Shape inference + graph cleanup first, as recommended for static quantization
+quant_pre_process(FP32_MODEL_PATH, PREPROCESSED_PATH)
+quantize_static(PREPROCESSED_PATH, INT8_MODEL_PATH,
+                SplitCalibrationReader(CALIBRATION_SPLIT, CALIBRATION_IMAGES),
+                quant_format=QuantFormat.QDQ,
+                activation_type=QuantType.QUInt8,
+                weight_type=QuantType.QInt8,
+                per_channel=True)
+os.remove(PREPROCESSED_PATH)
+print(f"✅ INT8 model written to {INT8_MODEL_PATH}")
+print("Run `java ModelGate` to check its accuracy before it is used")
@@ -0,0 +1,167 @@
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds separate objects in a frame and classifies each one.
+ *
+ * Candidate regions come from edge contours on a downscaled copy of the frame:
+ * per-channel Canny edges are dilated and closed so each object becomes one blob, and the
+ * bounding box of every outer contour above minAreaPercent of the frame is kept,
+ * largest first, up to maxRegions. Each box is padded, cropped from the full frame,
+ * resized to 224x224 and written into one [N,3,224,224] batch, so N objects cost a
+ * single inference call. When nothing is found the whole frame is classified as
+ * before. Not thread-safe.
+ */
+public class RegionClassifier {
+
+    private static final int DETECT_WIDTH = 320;
+    private static final double PADDING = 0.1;
+    private static final double CANNY_LOW = 30;
+    private static final double CANNY_HIGH = 90;
+
+    /** One classified region, in full-frame coordinates. */
+    public static final class Detection {
+        public final Rect box;
+        public final String label;
+
+        Detection(Rect box, String label) {
+            this.box = box;
+            this.label = label;
+        }
+    }
+
+    private final InferenceBackend inference;
+    private final TensorPreprocessor preprocessor = new TensorPreprocessor(GarbageClassifier.IMG_SIZE);
+    private final int maxRegions;
+    private final double minAreaFraction;
+
+    private final Mat small = new Mat();
+    private final List<Mat> channels = new ArrayList<>(3);
+    private final Mat channelEdges = new Mat();
+    private final Mat edges = new Mat();
+    private final Mat hierarchy = new Mat();
+    private final Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_RECT, new Size(5, 5));
+    private final Mat crop = new Mat();
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong regions = new AtomicLong();
+
+    /** The backend stays owned by the caller. */
+    public RegionClassifier(InferenceBackend inference, int maxRegions, double minAreaPercent) {
+        if (maxRegions < 1) throw new IllegalArgumentException("maxRegions must be >= 1");
+        this.inference = inference;
+        this.maxRegions = maxRegions;
+        this.minAreaFraction = minAreaPercent / 100.0;
+    }
+
+    /** Detect and classify the objects in a BGR frame. */
+    public List<Detection> classify(Mat frame) throws Exception {
+        List<Rect> boxes = findRegions(frame);
+        if (boxes.isEmpty()) boxes.add(new Rect(0, 0, frame.cols(), frame.rows()));
+
+        int n = boxes.size();
+        int size = GarbageClassifier.IMG_SIZE;
+        int imageElements = 3 * size * size;
+        long[] shape = {n, 3, size, size};
+        FloatBuffer input = inference.input(shape);
+        for (int i = 0; i < n; i++) {
+            Mat region = frame.submat(boxes.get(i));
+            Imgproc.resize(region, crop, new Size(size, size));
+            region.release();
+            preprocessor.writeTensor(crop, input, i * imageElements);
+        }
+
+        float[][] output = inference.run(shape);
+        List<Detection> detections = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            detections.add(new Detection(boxes.get(i), GarbageClassifier.formatLabel(output[i])));
+        }
+        frames.incrementAndGet();
+        regions.addAndGet(n);
+        return detections;
+    }
+
+    /** Candidate boxes in full-frame coordinates, largest first, at most maxRegions. */
+    List<Rect> findRegions(Mat frame) {
+        double scale = (double) DETECT_WIDTH / frame.cols();
+        Imgproc.resize(frame, small, new Size(DETECT_WIDTH, Math.max(1, Math.round(frame.rows() * scale))),
+                0, 0, Imgproc.INTER_AREA);
+        Imgproc.GaussianBlur(small, small, new Size(5, 5), 0);
+
+        // Edges of each colour channel, so objects that differ from the background in hue
+        // but not in brightness are still outlined
+        Core.split(small, channels);
+        edges.create(small.size(), CvType.CV_8UC1);
+        edges.setTo(Scalar.all(0));
+        for (Mat channel : channels) {
+            Imgproc.Canny(channel, channelEdges, CANNY_LOW, CANNY_HIGH);
+            Core.bitwise_or(edges, channelEdges, edges);
+            channel.release();
+        }
+        channels.clear();
+        Imgproc.dilate(edges, edges, kernel);
+        Imgproc.morphologyEx(edges, edges, Imgproc.MORPH_CLOSE, kernel);
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Imgproc.findContours(edges, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+
+        double minArea = minAreaFraction * small.total();
+        List<Rect> boxes = new ArrayList<>();
+        for (MatOfPoint c : contours) {
+            Rect r = Imgproc.boundingRect(c);
+            c.release();
+            if (r.area() >= minArea) boxes.add(r);
+        }
+        boxes.sort(Collections.reverseOrder((a, b) -> Double.compare(a.area(), b.area())));
+        if (boxes.size() > maxRegions) boxes.subList(maxRegions, boxes.size()).clear();
+
+        // Back to full resolution with some context around each object
+        for (int i = 0; i < boxes.size(); i++) {
+            Rect r = boxes.get(i);
+            double padX = r.width * PADDING, padY = r.height * PADDING;
+            int x0 = (int) Math.max(0, (r.x - padX) / scale);
+            int y0 = (int) Math.max(0, (r.y - padY) / scale);
+            int x1 = (int) Math.min(frame.cols(), (r.x + r.width + padX) / scale);
+            int y1 = (int) Math.min(frame.rows(), (r.y + r.height + padY) / scale);
+            boxes.set(i, new Rect(x0, y0, Math.max(1, x1 - x0), Math.max(1, y1 - y0)));
+        }
+        return boxes;
+    }
+
+    /** Draw each box with its label. */
+    public static void draw(Mat frame, List<Detection> detections) {
+        Scalar green = new Scalar(0, 255, 0);
+        for (Detection d : detections) {
+            Imgproc.rectangle(frame, d.box, green, 2);
+            Imgproc.putText(frame, d.label, new Point(d.box.x + 5, Math.max(20, d.box.y + 25)),
+                    Imgproc.FONT_HERSHEY_SIMPLEX, 0.7, green, 2);
+        }
+    }
+
+    public double getAverageRegions() {
+        long f = frames.get();
+        return f == 0 ? 0 : (double) regions.get() / f;
+    }
+
+    public String stats() {
+        return String.format("regions: frames=%d avg regions/frame=%.2f (cap %d, min area %.2f%%)",
+                frames.get(), getAverageRegions(), maxRegions, minAreaFraction * 100);
+    }
+
+    public void release() {
+        for (Mat m : new Mat[]{small, channelEdges, edges, hierarchy, kernel, crop}) m.release();
+    }
+}
@@ -0,0 +1,221 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtProvider;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Creates OrtSessions with the fastest SessionOptions found on this machine.
+ *
+ * The first time a model is opened with a given input shape, every candidate is built
+ * and timed on a zeroed warm-up tensor: CPU with 1, 2, 4 ... all cores as intra-op
+ * threads, plus XNNPACK when the runtime ships it. The winner is then timed again at the
+ * lower graph optimization levels. The choice is saved in session-tuning.properties,
+ * keyed by host, runtime version, model and shape, and later sessions are created from
+ * it directly. Delete the file to tune again.
+ */
+public class SessionTuner {
+
+    static final Path TUNING_FILE = Paths.get("session-tuning.properties");
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 10;
+
+    /** One candidate: execution provider, intra-op threads and graph optimization level */
+    static final class Config {
+        final String provider;
+        final int threads;
+        final OptLevel optLevel;
+
+        Config(String provider, int threads, OptLevel optLevel) {
+            this.provider = provider;
+            this.threads = threads;
+            this.optLevel = optLevel;
+        }
+
+        Config withOptLevel(OptLevel level) {
+            return new Config(provider, threads, level);
+        }
+
+        OrtSession.SessionOptions toOptions() throws OrtException {
+            OrtSession.SessionOptions options = new OrtSession.SessionOptions();
+            options.setOptimizationLevel(optLevel);
+            if (provider.equals("xnnpack")) {
+                // XNNPACK runs its own thread pool; keep ORT's pool from spinning next to it
+                options.setIntraOpNumThreads(1);
+                options.addConfigEntry("session.intra_op.allow_spinning", "0");
+                options.addXnnpack(Collections.singletonMap("intra_op_num_threads", String.valueOf(threads)));
+            } else {
+                options.setIntraOpNumThreads(threads);
+            }
+            return options;
+        }
+
+        String encode() {
+            return provider + ":" + threads + ":" + optLevel.name();
+        }
+
+        // null when the saved value is missing or malformed
+        static Config decode(String s) {
+            if (s == null) return null;
+            String[] parts = s.split(":");
+            if (parts.length != 3) return null;
+            try {
+                return new Config(parts[0], Integer.parseInt(parts[1]), OptLevel.valueOf(parts[2]));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return provider + " x" + threads + " " + optLevel;
+        }
+    }
+
+    private static final class Trial {
+        final Config config;
+        final OrtSession session;
+        final long medianNanos;
+
+        Trial(Config config, OrtSession session, long medianNanos) {
+            this.config = config;
+            this.session = session;
+            this.medianNanos = medianNanos;
+        }
+    }
+
+    private SessionTuner() {
+    }
+
+    /**
+     * Open modelPath with the saved configuration for this machine and warm-up shape,
+     * tuning and saving one first if there is none yet. The caller owns the session.
+     */
+    public static synchronized OrtSession createSession(OrtEnvironment env, String modelPath, long[] shape)
+            throws OrtException, IOException {
+        Properties saved = new Properties();
+        if (Files.exists(TUNING_FILE)) {
+            try (Reader in = Files.newBufferedReader(TUNING_FILE)) {
+                saved.load(in);
+            }
+        }
+        String key = fingerprint(env, modelPath, shape);
+
+        Config config = Config.decode(saved.getProperty(key));
+        if (config != null) {
+            try {
+                return open(env, modelPath, config);
+            } catch (OrtException e) {
+                System.out.println("⚠️ Saved session config " + config + " failed, re-tuning: " + e.getMessage());
+            }
+        }
+
+        Trial best = tune(env, modelPath, shape);
+        saved.setProperty(key, best.config.encode());
+        try (Writer out = Files.newBufferedWriter(TUNING_FILE)) {
+            saved.store(out, "Fastest ONNX Runtime session options per host/model/shape");
+        }
+        return best.session;
+    }
+
+    private static Trial tune(OrtEnvironment env, String modelPath, long[] shape) throws OrtException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        TreeSet<Integer> threadCounts = new TreeSet<>(Arrays.asList(1, 2, 4, cores));
+        threadCounts.removeIf(t -> t > cores);
+        EnumSet<OrtProvider> providers = OrtEnvironment.getAvailableProviders();
+
+        List<Config> candidates = new ArrayList<>();
+        for (int t : threadCounts) candidates.add(new Config("cpu", t, OptLevel.ALL_OPT));
+        if (providers.contains(OrtProvider.XNNPACK)) {
+            for (int t : threadCounts) candidates.add(new Config("xnnpack", t, OptLevel.ALL_OPT));
+        }
+
+        System.out.println("Tuning session options for " + modelPath + " " + Arrays.toString(shape) + " ...");
+        Trial best = null;
+        for (Config c : candidates) best = faster(best, trial(env, modelPath, shape, c));
+        if (best == null) {
+            Config fallback = new Config("cpu", cores, OptLevel.ALL_OPT);
+            return new Trial(fallback, open(env, modelPath, fallback), 0);
+        }
+
+        for (OptLevel level : new OptLevel[]{OptLevel.EXTENDED_OPT, OptLevel.BASIC_OPT, OptLevel.NO_OPT}) {
+            best = faster(best, trial(env, modelPath, shape, best.config.withOptLevel(level)));
+        }
+        System.out.printf("Selected %s (%.3f ms)%n", best.config, best.medianNanos / 1e6);
+        return best;
+    }
+
+    // Median run time of one candidate, or null if the provider cannot run this model
+    private static Trial trial(OrtEnvironment env, String modelPath, long[] shape, Config config) {
+        OrtSession session = null;
+        try {
+            session = open(env, modelPath, config);
+            long[] times = new long[TIMED_RUNS];
+            try (InferenceSession inference = new InferenceSession(env, session)) {
+                inference.input(shape);
+                for (int i = 0; i < WARMUP_RUNS; i++) inference.run(shape);
+                for (int i = 0; i < TIMED_RUNS; i++) {
+                    long start = System.nanoTime();
+                    inference.run(shape);
+                    times[i] = System.nanoTime() - start;
+                }
+            }
+            Arrays.sort(times);
+            long median = times[TIMED_RUNS / 2];
+            System.out.printf("  %-24s %8.3f ms%n", config, median / 1e6);
+            return new Trial(config, session, median);
+        } catch (OrtException e) {
+            System.out.println("  " + config + " unavailable: " + e.getMessage());
+            closeQuietly(session);
+            return null;
+        }
+    }
+
+    // Keep the faster trial and close the other
+    private static Trial faster(Trial a, Trial b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        Trial loser = b.medianNanos < a.medianNanos ? a : b;
+        closeQuietly(loser.session);
+        return loser == a ? b : a;
+    }
+
+    private static OrtSession open(OrtEnvironment env, String modelPath, Config config) throws OrtException {
+        try (OrtSession.SessionOptions options = config.toOptions()) {
+            return env.createSession(modelPath, options);
+        }
+    }
+
+    private static String fingerprint(OrtEnvironment env, String modelPath, long[] shape) {
+        File model = new File(modelPath);
+        String host = System.getProperty("os.name") + "-" + System.getProperty("os.arch") + "-"
+                + Runtime.getRuntime().availableProcessors() + "cpu";
+        String key = host + "|ort-" + env.getVersion() + "|" + model.getAbsolutePath() + "|" + model.length()
+                + "|" + model.lastModified() + "|" + Arrays.toString(shape);
+        return key.replaceAll("[^A-Za-z0-9._|\\-]", "_");
+    }
+
+    private static void closeQuietly(OrtSession session) {
+        if (session == null) return;
+        try {
+            session.close();
+        } catch (OrtException e) {
+            e.printStackTrace();
+        }
+    }
+}
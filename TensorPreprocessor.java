@@ -0,0 +1,75 @@
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Converts a resized BGR frame into the normalized CHW float tensor the model expects.
+ * The frame is pulled out of native memory with one bulk get into a reused byte[],
+ * normalized through per-channel lookup tables and written into a reused direct buffer,
+ * so steady-state frames allocate nothing on the Java heap.
+ */
+public class TensorPreprocessor {
+
+    private static final float[] MEAN = {0.485f, 0.456f, 0.406f};
+    private static final float[] STD = {0.229f, 0.224f, 0.225f};
+
+    private final int size;
+    private final int plane;
+    private final byte[] pixels;
+    private final float[][] lut = new float[3][256];
+    private final FloatBuffer tensor;
+
+    public TensorPreprocessor(int size) {
+        this.size = size;
+        this.plane = size * size;
+        this.pixels = new byte[3 * plane];
+        this.tensor = ByteBuffer.allocateDirect(3 * plane * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+
+        // lut[c][v] is the normalized value of byte v in RGB channel c
+        for (int c = 0; c < 3; c++) {
+            for (int v = 0; v < 256; v++) {
+                lut[c][v] = (float) ((v / 255.0 - MEAN[c]) / STD[c]);
+            }
+        }
+    }
+
+    /**
+     * Normalize a size x size CV_8UC3 BGR Mat into the shared tensor buffer.
+     * The returned buffer is rewritten on the next call.
+     */
+    public FloatBuffer toTensor(Mat resized) {
+        writeTensor(resized, tensor, 0);
+        tensor.rewind();
+        return tensor;
+    }
+
+    /**
+     * Normalize a size x size CV_8UC3 BGR Mat into dst as 3 CHW planes starting at
+     * element offset, leaving dst's position untouched.
+     */
+    public void writeTensor(Mat resized, FloatBuffer dst, int offset) {
+        if (resized.type() != CvType.CV_8UC3 || resized.rows() != size || resized.cols() != size) {
+            throw new IllegalArgumentException("Expected " + size + "x" + size + " CV_8UC3 Mat, got " + resized);
+        }
+
+        Mat src = resized.isContinuous() ? resized : resized.clone();
+        src.get(0, 0, pixels);
+        if (src != resized) src.release();
+
+        float[] r = lut[0], g = lut[1], b = lut[2];
+        for (int i = 0, p = 0; i < plane; i++, p += 3) {
+            dst.put(offset + i, r[pixels[p + 2] & 0xFF]);
+            dst.put(offset + i + plane, g[pixels[p + 1] & 0xFF]);
+            dst.put(offset + i + 2 * plane, b[pixels[p] & 0xFF]);
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
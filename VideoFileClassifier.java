@@ -0,0 +1,249 @@
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtSession;
+import ai.onnxruntime.OrtSession.SessionOptions.OptLevel;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Classifies every frame of a recorded video file as fast as the machine allows, without
+ * a window.
+ *
+ * One thread decodes the file and cuts it into batches. As in DatasetEvaluator, each
+ * batch is a fork-join task that resizes and normalizes its frames in parallel into its
+ * own [N,3,224,224] buffer and runs it through the shared session, with up to inFlight
+ * batches in progress so decoding overlaps inference. A writer thread takes the batches
+ * back in frame order and writes one line per frame with the label, its confidence and
+ * every class probability: JSON lines when the output file ends in .jsonl, CSV otherwise.
+ * Decoded frames come from a MatPool and return to it once resized, so after the first
+ * batches no frame allocates native memory. Progress and the final frames/sec, relative
+ * to the video's own frame rate, go to stdout.
+ *
+ * Usage: java VideoFileClassifier video.mp4 [out.csv|out.jsonl] [model.onnx] [batchSize] [inFlight]
+ */
+public class VideoFileClassifier {
+
+    private static final long PROGRESS_NANOS = 5_000_000_000L;
+    private static final ThreadLocal<TensorPreprocessor> PREPROCESSORS =
+            ThreadLocal.withInitial(() -> new TensorPreprocessor(GarbageClassifier.IMG_SIZE));
+    private static final ThreadLocal<Mat> RESIZED = ThreadLocal.withInitial(Mat::new);
+
+    /** Consecutive frames, then their class probabilities once classified. */
+    private static final class Batch {
+        final long firstFrame;
+        final List<Mat> frames = new ArrayList<>();
+        final List<Double> timesMs = new ArrayList<>();
+        float[][] probs;
+
+        Batch(long firstFrame) {
+            this.firstFrame = firstFrame;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        if (args.length < 1) {
+            System.out.println("Usage: java VideoFileClassifier video.mp4 [out.csv|out.jsonl] [model.onnx] [batchSize] [inFlight]");
+            return;
+        }
+        String video = args[0];
+        String out = args.length > 1 ? args[1] : video + ".csv";
+        String modelPath = args.length > 2 ? args[2] : "model.onnx";
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int inFlight = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        run(video, out, modelPath, batchSize, inFlight);
+    }
+
+    public static void run(String video, String out, String modelPath, int batchSize, int inFlight) throws Exception {
+        VideoCapture cap = new VideoCapture(video);
+        if (!cap.isOpened()) {
+            System.out.println("❌ Cannot open " + video);
+            return;
+        }
+        double videoFps = cap.get(Videoio.CAP_PROP_FPS);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%s -> %s: %.0f frames at %.1f fps, batch %d, %d batches in flight, %d cores%n",
+                video, out, cap.get(Videoio.CAP_PROP_FRAME_COUNT), videoFps, batchSize, inFlight, cores);
+
+        ForkJoinPool pool = new ForkJoinPool(cores);
+        SessionTuner.Config config = new SessionTuner.Config("cpu", Math.max(1, cores / inFlight), OptLevel.ALL_OPT);
+        boolean jsonl = out.endsWith(".jsonl");
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        // Frames of the batches in flight plus the one being read
+        MatPool framePool = new MatPool(batchSize * (inFlight + 1));
+        int rows = (int) cap.get(Videoio.CAP_PROP_FRAME_HEIGHT);
+        int cols = (int) cap.get(Videoio.CAP_PROP_FRAME_WIDTH);
+        long frames = 0;
+        long start = System.nanoTime();
+
+        try (OrtEnvironment env = OrtEnvironment.getEnvironment();
+             OrtSession.SessionOptions options = config.toOptions();
+             OrtSession session = env.createSession(modelPath, options);
+             BufferedWriter writer = Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+
+            BlockingQueue<InferenceSession> runners = new ArrayBlockingQueue<>(inFlight);
+            for (int i = 0; i < inFlight; i++) runners.add(new InferenceSession(env, session));
+            // Batches in submission (= frame) order; an already-completed null marks the end
+            BlockingQueue<Future<Batch>> pending = new ArrayBlockingQueue<>(inFlight * 2);
+
+            if (!jsonl) writeCsvHeader(writer);
+            Thread writerThread = new Thread(() -> writeLoop(pending, writer, jsonl, start, failure), "video-writer");
+            writerThread.start();
+
+            Mat frame = framePool.acquire(rows, cols, CvType.CV_8UC3);
+            while (failure.get() == null) {
+                Batch batch = new Batch(frames);
+                while (batch.frames.size() < batchSize && cap.read(frame) && !frame.empty()) {
+                    batch.frames.add(frame);
+                    // POS_MSEC already points at the next frame after read(), so use the frame rate
+                    long index = frames + batch.frames.size() - 1;
+                    batch.timesMs.add(videoFps > 0 ? index * 1000.0 / videoFps : cap.get(Videoio.CAP_PROP_POS_MSEC));
+                    frame = framePool.acquire(frame.rows(), frame.cols(), frame.type());
+                }
+                if (batch.frames.isEmpty()) break;
+                frames += batch.frames.size();
+
+                InferenceSession runner = runners.take();
+                pending.put(pool.submit(() -> {
+                    try {
+                        classify(runner, batch, framePool);
+                    } finally {
+                        runners.add(runner);
+                    }
+                    return batch;
+                }));
+            }
+            framePool.release(frame);
+            pending.put(CompletableFuture.completedFuture(null));
+            writerThread.join();
+
+            for (InferenceSession runner : runners) runner.close();
+        } finally {
+            pool.shutdown();
+            cap.release();
+            System.out.println(framePool.stats());
+            framePool.close();
+        }
+        if (failure.get() != null) throw failure.get();
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double fps = frames / seconds;
+        System.out.printf("✅ %d frames in %.1f s: %.1f frames/s", frames, seconds, fps);
+        if (videoFps > 0) System.out.printf(" (%.1fx real time)", fps / videoFps);
+        System.out.println();
+    }
+
+    private static void classify(InferenceSession runner, Batch batch, MatPool framePool) throws Exception {
+        int n = batch.frames.size();
+        int size = GarbageClassifier.IMG_SIZE;
+        int imageElements = 3 * size * size;
+        long[] shape = {n, 3, size, size};
+        FloatBuffer input = runner.input(shape);
+
+        // Each task writes only its own region of the batch buffer
+        List<ForkJoinTask<?>> resizes = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int idx = i;
+            resizes.add(ForkJoinTask.adapt(() -> {
+                Mat frame = batch.frames.get(idx);
+                Mat resized = RESIZED.get();
+                Imgproc.resize(frame, resized, new Size(size, size));
+                framePool.release(frame);
+                PREPROCESSORS.get().writeTensor(resized, input, idx * imageElements);
+            }));
+        }
+        ForkJoinTask.invokeAll(resizes);
+
+        float[][] output = runner.run(shape);
+        batch.probs = new float[n][];
+        for (int i = 0; i < n; i++) batch.probs[i] = GarbageClassifier.softmax(output[i]);
+    }
+
+    // After a failure the remaining batches are still drained so the reader never blocks
+    private static void writeLoop(BlockingQueue<Future<Batch>> pending, Writer writer, boolean jsonl,
+                                  long start, AtomicReference<Exception> failure) {
+        long written = 0;
+        long lastReport = start;
+        try {
+            while (true) {
+                Future<Batch> next = pending.take();
+                Batch batch;
+                try {
+                    batch = next.get();
+                } catch (ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                    continue;
+                }
+                if (batch == null) break;
+                if (failure.get() != null) continue;
+
+                try {
+                    for (int i = 0; i < batch.probs.length; i++) {
+                        writeLine(writer, jsonl, batch.firstFrame + i, batch.timesMs.get(i), batch.probs[i]);
+                    }
+                } catch (IOException e) {
+                    failure.compareAndSet(null, e);
+                    continue;
+                }
+                written += batch.probs.length;
+                long now = System.nanoTime();
+                if (now - lastReport >= PROGRESS_NANOS) {
+                    System.out.printf("%d frames, %.1f frames/s%n", written, written / ((now - start) / 1e9));
+                    lastReport = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeCsvHeader(Writer writer) throws IOException {
+        writer.write("frame,time_ms,label,confidence");
+        for (String name : GarbageClassifier.CLASS_NAMES) writer.write("," + name);
+        writer.write("\n");
+    }
+
+    private static void writeLine(Writer writer, boolean jsonl, long frame, double timeMs, float[] probs)
+            throws IOException {
+        int best = GarbageClassifier.argMax(probs);
+        String label = GarbageClassifier.CLASS_NAMES[best];
+        StringBuilder sb = new StringBuilder();
+        if (jsonl) {
+            sb.append(String.format(Locale.US, "{\"frame\":%d,\"timeMs\":%.1f,\"label\":\"%s\",\"confidence\":%.4f,\"probs\":{",
+                    frame, timeMs, label, probs[best]));
+            for (int c = 0; c < probs.length; c++) {
+                if (c > 0) sb.append(',');
+                sb.append(String.format(Locale.US, "\"%s\":%.4f", GarbageClassifier.CLASS_NAMES[c], probs[c]));
+            }
+            sb.append("}}\n");
+        } else {
+            sb.append(String.format(Locale.US, "%d,%.1f,%s,%.4f", frame, timeMs, label, probs[best]));
+            for (float p : probs) sb.append(String.format(Locale.US, ",%.4f", p));
+            sb.append('\n');
+        }
+        writer.write(sb.toString());
+    }
+}